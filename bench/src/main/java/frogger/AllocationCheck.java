@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Checks that moving entities around doesn't allocate
+ * 
+ * Runs MovingEntity.update over a batch of traffic, Frogger.update
+ * with the frog riding a log, the lane indexed collision test and the
+ * lanes of a second world moving their traffic in cycleTraffic, then
+ * measures the bytes this thread allocated over a number of steady-state
+ * ticks. Exits with status 1 if anything was allocated.
+ * 
+ * $ java -cp bench/target/benchmarks.jar:lib/jig-1.7.5.jar frogger.AllocationCheck
+ * 
+ * @author vitaliy
+ *
+ */
+public class AllocationCheck {
+	
+	static final int WARMUP_TICKS = 200000;
+	static final int TICKS = 10000;
+	
+	public static void main(String[] args) {
+		com.sun.management.ThreadMXBean mx = 
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+		
+		FroggerWorld world = BenchmarkWorlds.newWorld(Main.STARTING_LEVEL);
+		MovingEntity[] traffic = BenchmarkWorlds.traffic(500);
+		LaneIndex lanes = new LaneIndex(Main.WORLD_HEIGHT / LaneIndex.ROW_HEIGHT);
+		for (MovingEntity m : traffic)
+			lanes.add(m);
+		world.frog.follow(traffic[0]);
+		FroggerWorld road = BenchmarkWorlds.newWorld(Main.STARTING_LEVEL);
+		
+		tick(world, traffic, lanes, WARMUP_TICKS);
+		// the pool keeps growing until every lane had its busiest moment
+		cycle(road, 2*WARMUP_TICKS);
+		
+		long before = mx.getThreadAllocatedBytes(thread);
+		tick(world, traffic, lanes, TICKS);
+		cycle(road, TICKS);
+		long after = mx.getThreadAllocatedBytes(thread);
+		
+		// getThreadAllocatedBytes itself allocates nothing, but leave a little slack for it
+		long bytes = after - before;
+		System.out.println(bytes + " bytes allocated in " + TICKS + " ticks");
+		if (bytes > 1024)
+			System.exit(1);
+	}
+	
+	static void tick(FroggerWorld world, MovingEntity[] traffic, LaneIndex lanes, int ticks) {
+		for (int t = 0; t < ticks; t++) {
+			for (int i = 0; i < traffic.length; i++) {
+				MovingEntity m = traffic[i];
+				m.update(BenchmarkWorlds.DELTA_MS);
+				
+				// keep traffic going round the screen
+				if (m.getX() > Main.WORLD_WIDTH || m.getX() < -m.getWidth()) {
+					m.setPosition(Main.WORLD_WIDTH/2, m.getY());
+					m.setActivation(true);
+				}
+			}
+			world.frog.update(BenchmarkWorlds.DELTA_MS);
+			world.frog.setPosition(Main.FROGGER_START.getX(), Main.FROGGER_START.getY());
+			world.frogCol.testCollision(lanes);
+		}
+	}
+	
+	/**
+	 * Lanes spawning, moving and recycling their traffic, once the pool
+	 * has enough of everything none of it allocates
+	 */
+	static void cycle(FroggerWorld world, int ticks) {
+		for (int t = 0; t < ticks; t++)
+			world.cycleTraffic(BenchmarkWorlds.DELTA_MS);
+	}
+}
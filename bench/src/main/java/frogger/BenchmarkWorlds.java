@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.util.Random;
+
+import jig.engine.util.Vector2D;
+
+/**
+ * Builds headless game worlds and traffic for the benchmarks
+ * 
+ * @author vitaliy
+ *
+ */
+class BenchmarkWorlds {
+	
+	static final long DELTA_MS = 16;
+	static final long SEED = 42;
+	
+	/**
+	 * Headless world with a game in progress on the given level
+	 */
+	static FroggerWorld newWorld(int level) {
+		FroggerWorld w = new HeadlessMain(SEED).getWorld();
+		w.newGame();
+		w.frog.cheating = true;
+		if (level != Main.STARTING_LEVEL) {
+			w.GameLevel = level;
+			w.initializeLevel(level);
+		}
+		return w;
+	}
+	
+	/**
+	 * Random mix of traffic spread over the road and river rows
+	 * 
+	 * @param n - number of entities
+	 * @return
+	 */
+	static MovingEntity[] traffic(int n) {
+		Random r = new Random(SEED);
+		MovingEntity[] m = new MovingEntity[n];
+		
+		for (int i = 0; i < n; i++) {
+			int row = 2 + r.nextInt(11);
+			if (row == 7) 
+				row = 8;     // median strip is always empty
+			
+			Vector2D pos = new Vector2D(r.nextInt(Main.WORLD_WIDTH), row*32);
+			Vector2D v = new Vector2D((r.nextBoolean() ? 1 : -1) * 0.1, 0);
+			
+			switch (r.nextInt(6)) {
+			case 0: m[i] = new Car(pos, v, r.nextInt(Car.TYPES)); break;
+			case 1: m[i] = new Truck(pos, v); break;
+			case 2: m[i] = new ShortLog(pos, v); break;
+			case 3: m[i] = new LongLog(pos, v); break;
+			case 4: m[i] = new Crocodile(pos, v); break;
+			default: m[i] = new Turtles(pos, v, r.nextInt(2));
+			}
+		}
+		return m;
+	}
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.util.concurrent.TimeUnit;
+
+import jig.engine.util.Vector2D;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Collision test against a layer of n entities, scanning the whole layer
+ * the way the game used to and FroggerCollisionDetection.testCollision
+ * using the lane index
+ * 
+ * "road" puts the frog on a busy road row, "safe" on the start row where
+ * nothing can hit it, so every entity in the layer is tested.
+ * 
+ * @author vitaliy
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+	
+	@Param({"50", "500", "5000"})
+	int entities;
+	
+	@Param({"safe", "road"})
+	String frogRow;
+	
+	FroggerWorld world;
+	
+	@Setup
+	public void buildWorld() {
+		world = BenchmarkWorlds.newWorld(Main.STARTING_LEVEL);
+		world.movingObjectsLayer.clear();
+		world.lanes.clear();
+		for (MovingEntity m : BenchmarkWorlds.traffic(entities))
+			world.addMovingEntity(m);
+		
+		if (frogRow.equals("road"))
+			world.frog.setPosition(new Vector2D(6*32, 10*32));
+		else
+			world.frog.setPosition(Main.FROGGER_START);
+		world.frog.sync(world.frog.getPosition());
+	}
+	
+	@Benchmark
+	public void testCollision(Blackhole bh) {
+		testLayer(world.frogCol, world.movingObjectsLayer);
+		bh.consume(world.frog.isAlive);
+	}
+	
+	@Benchmark
+	public void testCollisionLanes(Blackhole bh) {
+		world.frogCol.testCollision(world.lanes);
+		bh.consume(world.frog.isAlive);
+	}
+	
+	/**
+	 * The collision test before the lane index, every entity in the layer
+	 * is tested in turn
+	 */
+	static void testLayer(FroggerCollisionDetection c, Iterable<MovingEntity> l) {
+		if (!c.frog.isAlive)
+			return;
+		
+		if (c.isOutOfBounds()) {
+			c.frog.die();
+			return;
+		}
+		
+		for (MovingEntity m : l) {
+			if (c.testEntity(m))
+				return;
+		}
+		
+		if (c.isInRiver())
+			c.frog.die();
+	}
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One game tick: FroggerWorld.cycleTraffic alone and the whole FroggerWorld.update
+ * 
+ * extraEntities adds traffic on top of what the lanes spawn, 0 is a
+ * normal game, larger numbers stress the layer iteration.
+ * 
+ * @author vitaliy
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CycleTrafficBenchmark {
+	
+	@Param({"1", "10"})
+	int level;
+	
+	@Param({"0", "2000"})
+	int extraEntities;
+	
+	FroggerWorld world;
+	
+	@Setup(Level.Trial)
+	public void buildWorld() {
+		world = BenchmarkWorlds.newWorld(level);
+	}
+	
+	/**
+	 * Extra traffic drives off the screen and gets recycled, so start every
+	 * iteration from a freshly built level to keep iterations comparable
+	 */
+	@Setup(Level.Iteration)
+	public void resetLevel() {
+		world.initializeLevel(level);
+		for (MovingEntity m : BenchmarkWorlds.traffic(extraEntities))
+			world.addMovingEntity(m);
+	}
+	
+	@Benchmark
+	public void cycleTraffic() {
+		world.cycleTraffic(BenchmarkWorlds.DELTA_MS);
+	}
+	
+	@Benchmark
+	public void worldUpdate() {
+		world.update(BenchmarkWorlds.DELTA_MS);
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.util.concurrent.TimeUnit;
+
+import jig.engine.util.Vector2D;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * MovingEntityFactory.buildVehicle
+ * 
+ * "spawn" advances the factory past its creation rate before every call, so
+ * each call decides on a new vehicle. "tick" is the normal per-tick call
+ * where the lane is usually not due to spawn yet.
+ * 
+ * @author vitaliy
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FactoryBenchmark {
+	
+	MovingEntityFactory lane;
+	
+	@Setup
+	public void buildLane() {
+		HeadlessResourceFactory.install();
+		lane = new MovingEntityFactory(new Vector2D(Main.WORLD_WIDTH, 8*32), 
+				new Vector2D(-0.1, 0), new MovingEntityPool(), 
+				new GameRandom(BenchmarkWorlds.SEED));
+	}
+	
+	@Benchmark
+	public void spawn(Blackhole bh) {
+		lane.update(100000);
+		bh.consume(lane.buildVehicle());
+	}
+	
+	@Benchmark
+	public void tick(Blackhole bh) {
+		lane.update(BenchmarkWorlds.DELTA_MS);
+		bh.consume(lane.buildVehicle());
+	}
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emits game events as Java Flight Recorder events, loaded by GameEvents.load()
+ * 
+ * Every hook first asks JFR whether its event type is enabled, so nothing 
+ * is allocated or recorded unless a recording is running. Ticks and level 
+ * loads are timed from begin to end, the others are instant events.
+ * 
+ * $ jfr print --categories Frogger frogger.jfr
+ * 
+ * @author vitaliy
+ *
+ */
+public class JfrGameEvents extends GameEvents {
+	
+	@Name("frogger.Tick")
+	@Label("Game Tick")
+	@Category("Frogger")
+	@StackTrace(false)
+	static class TickEvent extends Event {
+		@Label("Delta ms") long deltaMs;
+		@Label("Game State") int gameState;
+		@Label("Game Level") int gameLevel;
+		@Label("Moving Entities") int entities;
+		@Label("Particles") int particles;
+	}
+	
+	@Name("frogger.Spawn")
+	@Label("Entity Spawn")
+	@Category("Frogger")
+	@StackTrace(false)
+	static class SpawnEvent extends Event {
+		@Label("Lane") String lane;
+		@Label("Entity") Class<?> entity;
+		@Label("X") double x;
+		@Label("Y") double y;
+	}
+	
+	@Name("frogger.Die")
+	@Label("Frogger Dies")
+	@Category("Frogger")
+	@StackTrace(false)
+	static class DieEvent extends Event {
+		@Label("X") double x;
+		@Label("Y") double y;
+		@Label("Game Level") int gameLevel;
+		@Label("Lives Left") int lives;
+	}
+	
+	@Name("frogger.Reach")
+	@Label("Frogger Reaches Goal")
+	@Category("Frogger")
+	@StackTrace(false)
+	static class ReachEvent extends Event {
+		@Label("X") double x;
+		@Label("Bonus") boolean bonus;
+		@Label("Game Level") int gameLevel;
+		@Label("Score") int score;
+	}
+	
+	@Name("frogger.LevelLoad")
+	@Label("Level Load")
+	@Category("Frogger")
+	@StackTrace(false)
+	static class LevelLoadEvent extends Event {
+		@Label("Game Level") int gameLevel;
+		@Label("Moving Entities") int entities;
+	}
+	
+	private static final EventType TICK = EventType.getEventType(TickEvent.class);
+	private static final EventType SPAWN = EventType.getEventType(SpawnEvent.class);
+	private static final EventType DIE = EventType.getEventType(DieEvent.class);
+	private static final EventType REACH = EventType.getEventType(ReachEvent.class);
+	private static final EventType LEVEL_LOAD = EventType.getEventType(LevelLoadEvent.class);
+	
+	// Timed events in progress, null when not recording. Each world loads an
+	// instance of its own, see GameEvents.load()
+	private TickEvent tick;
+	private LevelLoadEvent levelLoad;
+	
+	public void beginTick() {
+		if (TICK.isEnabled()) {
+			tick = new TickEvent();
+			tick.begin();
+		}
+	}
+	
+	public void endTick(FroggerWorld w, long deltaMs) {
+		TickEvent e = tick;
+		if (e == null)
+			return;
+		tick = null;
+		
+		e.end();
+		if (e.shouldCommit()) {
+			e.deltaMs = deltaMs;
+			e.gameState = w.GameState;
+			e.gameLevel = w.GameLevel;
+			e.entities = w.movingObjectsLayer.size();
+			e.particles = w.particles.size();
+			e.commit();
+		}
+	}
+	
+	public void spawn(String lane, MovingEntity m) {
+		if (!SPAWN.isEnabled())
+			return;
+		SpawnEvent e = new SpawnEvent();
+		e.lane = lane;
+		e.entity = m.getClass();
+		e.x = m.getPosition().getX();
+		e.y = m.getPosition().getY();
+		e.commit();
+	}
+	
+	public void die(FroggerWorld w) {
+		if (!DIE.isEnabled())
+			return;
+		DieEvent e = new DieEvent();
+		e.x = w.frog.getPosition().getX();
+		e.y = w.frog.getPosition().getY();
+		e.gameLevel = w.GameLevel;
+		e.lives = w.GameLives;
+		e.commit();
+	}
+	
+	public void reach(FroggerWorld w, Goal g) {
+		if (!REACH.isEnabled())
+			return;
+		ReachEvent e = new ReachEvent();
+		e.x = g.getPosition().getX();
+		e.bonus = g.isBonus;
+		e.gameLevel = w.GameLevel;
+		e.score = w.GameScore;
+		e.commit();
+	}
+	
+	public void beginLevelLoad() {
+		if (LEVEL_LOAD.isEnabled()) {
+			levelLoad = new LevelLoadEvent();
+			levelLoad.begin();
+		}
+	}
+	
+	public void endLevelLoad(FroggerWorld w, int level) {
+		LevelLoadEvent e = levelLoad;
+		if (e == null)
+			return;
+		levelLoad = null;
+		
+		e.end();
+		if (e.shouldCommit()) {
+			e.gameLevel = level;
+			e.entities = w.movingObjectsLayer.size();
+			e.commit();
+		}
+	}
+}
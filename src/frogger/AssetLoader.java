@@ -0,0 +1,289 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ShortBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+import jig.engine.ResourceFactory;
+
+/**
+ * Decodes sounds on background threads while the game starts up
+ * 
+ * jig's resources.xml decodes every clip, one after the other, before the 
+ * first frame. Here clips are handed out as Sound handles right away and
+ * decoded in parallel to samples for the SoundMixer, or mapped from the
+ * PcmCache when an earlier launch decoded them already. Playing a sound 
+ * that isn't loaded yet does nothing.
+ * Rarely heard sounds are lazy: nothing is decoded until they are first
+ * played, and that first play starts once decoding is done.
+ * 
+ * Asking for the same sound twice returns the same handle, so sounds can be
+ * requested early, e.g. by AudioEfx.preload() before the sprite sheet loads.
+ * 
+ * @author vitaliy
+ *
+ */
+public class AssetLoader {
+	
+	private static AssetLoader loader = null;
+	
+	private final ExecutorService exec;
+	
+	private final Map<String, Sound> sounds = new HashMap<String, Sound>();
+	
+	/**
+	 * @return loader shared by the whole game
+	 */
+	public static synchronized AssetLoader getLoader() {
+		if (loader == null)
+			loader = new AssetLoader(Math.max(2, Runtime.getRuntime().availableProcessors()));
+		return loader;
+	}
+	
+	/**
+	 * @param threads - number of sounds decoded at once
+	 */
+	public AssetLoader(int threads) {
+		exec = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "frogger-assets");
+				t.setDaemon(true);
+				t.setPriority(Thread.NORM_PRIORITY - 1);
+				return t;
+			}
+		});
+	}
+	
+	/**
+	 * Sound that starts loading now
+	 * @param path - resource path, like "resources/jump.wav"
+	 */
+	public Sound clip(String path) {
+		Sound s = sound(path);
+		s.request(-1, 0, 0);
+		return s;
+	}
+	
+	/**
+	 * Sound that is decoded when first played
+	 * @param path - resource path
+	 */
+	public Sound lazyClip(String path) {
+		return sound(path);
+	}
+	
+	private synchronized Sound sound(String path) {
+		Sound s = sounds.get(path);
+		if (s == null) {
+			s = new Sound(path);
+			sounds.put(path, s);
+		}
+		return s;
+	}
+	
+	/**
+	 * @param path - resource path
+	 * @return the AssetPack if the resource is packed, its loose file otherwise, 
+	 * 		null if there's neither
+	 */
+	static URL locate(String path) {
+		AssetPack pack = AssetPack.getPack();
+		if (pack != null && pack.get(path) != null)
+			return pack.getURL();
+		return ResourceFactory.findResource(path);
+	}
+	
+	/**
+	 * Read a resource out of the AssetPack, or its loose file
+	 * @param path - resource path
+	 */
+	static InputStream open(String path) throws IOException {
+		AssetPack pack = AssetPack.getPack();
+		InputStream in = pack == null ? null : pack.open(path);
+		if (in != null)
+			return in;
+		
+		URL url = ResourceFactory.findResource(path);
+		if (url == null)
+			throw new FileNotFoundException(path);
+		return new BufferedInputStream(url.openStream());
+	}
+	
+	/**
+	 * Decode a clip to SoundMixer.FORMAT samples
+	 * @param path - resource path
+	 */
+	static short [] decode(String path) throws IOException, UnsupportedAudioFileException {
+		AudioInputStream in = AudioSystem.getAudioInputStream(open(path));
+		try {
+			AudioFormat f = in.getFormat();
+			AudioFormat pcm = new AudioFormat(f.getSampleRate(), 16, f.getChannels(), true, false);
+			AudioInputStream d = AudioSystem.getAudioInputStream(pcm, in);
+			
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			byte [] buf = new byte[8192];
+			int n;
+			while ((n = d.read(buf)) > 0)
+				bytes.write(buf, 0, n);
+			
+			byte [] b = bytes.toByteArray();
+			short [] s = new short[b.length / 2];
+			for (int i = 0; i < s.length; i++)
+				s[i] = (short) ((b[2*i] & 0xff) | (b[2*i+1] << 8));
+			return toMixFormat(s, f.getChannels(), f.getSampleRate());
+		} finally {
+			in.close();
+		}
+	}
+	
+	/**
+	 * Resample to the mixer's rate, linearly, and spread mono over both channels
+	 * @param s - 16 bit samples
+	 * @param channels - of s, channels past the second are dropped
+	 * @param rate - of s
+	 */
+	static short [] toMixFormat(short [] s, int channels, float rate) {
+		float mixRate = SoundMixer.FORMAT.getSampleRate();
+		int frames = s.length / channels;
+		int mixFrames = (int) ((long) frames * mixRate / rate);
+		int right = channels > 1 ? 1 : 0;
+		
+		short [] m = new short[mixFrames * 2];
+		for (int j = 0; j < mixFrames; j++) {
+			double pos = j * (rate / mixRate);
+			int i = (int) pos;
+			float t = (float) (pos - i);
+			int a = i * channels;
+			int b = Math.min(i + 1, frames - 1) * channels;
+			m[2*j]   = (short) (s[a] + (s[b] - s[a]) * t);
+			m[2*j+1] = (short) (s[a + right] + (s[b + right] - s[a + right]) * t);
+		}
+		return m;
+	}
+	
+	/**
+	 * Handle of a clip that may still be decoding
+	 */
+	public class Sound {
+		private final String path;
+		private final AtomicBoolean requested = new AtomicBoolean(false);
+		
+		private volatile ShortBuffer samples = null;
+		
+		Sound(String p) {
+			path = p;
+		}
+		
+		/**
+		 * Play at the lowest priority, on as many voices as it takes
+		 * @param gain
+		 */
+		public void play(double gain) {
+			play(gain, 0, SoundMixer.VOICES);
+		}
+		
+		/**
+		 * Play if decoded; a lazy sound that was never played starts decoding
+		 * and plays once that's done
+		 * 
+		 * @param gain - linear
+		 * @param priority - see SoundMixer.play
+		 * @param max - most voices this sound plays on at once
+		 */
+		public void play(double gain, int priority, int max) {
+			ShortBuffer s = samples;
+			if (s != null)
+				SoundMixer.getMixer().play(s, gain, priority, max);
+			else
+				request(gain, priority, max);
+		}
+		
+		/**
+		 * Loop as the background music
+		 * @param gain - linear
+		 * @return false while not loaded, see clip()
+		 */
+		public boolean loop(double gain) {
+			ShortBuffer s = samples;
+			if (s == null)
+				return false;
+			SoundMixer.getMixer().loop(s, gain);
+			return true;
+		}
+		
+		public boolean isLoaded() {
+			return samples != null;
+		}
+		
+		/**
+		 * Start decoding unless it started already
+		 * @param gain - play at this gain when decoded, negative to stay quiet
+		 */
+		void request(final double gain, final int priority, final int max) {
+			if (!requested.compareAndSet(false, true))
+				return;
+			
+			exec.execute(new Runnable() {
+				public void run() {
+					ShortBuffer s;
+					try {
+						s = PcmCache.load(path);
+					} catch (IOException e) {
+						System.err.println("Can't load sound " + path + ": " + e);
+						return;
+					} catch (UnsupportedAudioFileException e) {
+						System.err.println("Can't load sound " + path + ": " + e);
+						return;
+					} catch (RuntimeException e) {
+						// e.g. no decoder for the clip's format
+						System.err.println("Can't load sound " + path + ": " + e);
+						return;
+					}
+					samples = s;
+					if (gain >= 0)
+						SoundMixer.getMixer().play(s, gain, priority, max);
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,273 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import jig.engine.ResourceFactory;
+
+/**
+ * Sprite sheet, frameset table and sounds packed into one file by AssetPacker
+ * 
+ * The pack is memory-mapped, so starting the game is one open and no XML
+ * parsing: frames are cut straight out of the sheet's pixels and sounds
+ * are read from slices of the mapping. Without a pack the game loads the
+ * loose files in resources/ as before.
+ * 
+ * Layout, big-endian:
+ * 
+ *   int magic, byte version, int number of entries
+ *   per entry: short name length, UTF-8 name, int offset, int length
+ *   entry data
+ * 
+ * Entries are named after the resource path they replace, like 
+ * "resources/jump.wav" holding the file as it is. The sprite sheet entry
+ * holds int width, int height and the ARGB pixels; FRAMESETS holds short
+ * count and per frameset the name followed by short left, top, width, 
+ * height, columns and rows.
+ * 
+ * @author vitaliy
+ *
+ */
+public class AssetPack {
+	
+	public static final String PACK = Main.RSC_PATH + "frogger.pak";
+	
+	static final int MAGIC = 0x4650414b;  // "FPAK"
+	static final byte VERSION = 1;
+	
+	static final String FRAMESETS = "framesets";
+	
+	static final Charset UTF8 = Charset.forName("UTF-8");
+	
+	private static AssetPack pack = null;
+	private static boolean opened = false;
+	
+	private final URL url;
+	private final Map<String, ByteBuffer> entries = new HashMap<String, ByteBuffer>();
+	
+	/**
+	 * @return the pack on the class path, null if there's none
+	 */
+	public static synchronized AssetPack getPack() {
+		if (!opened) {
+			opened = true;
+			
+			// Not jig's findResource, that complains about missing files
+			URL url = ClassLoader.getSystemResource(PACK);
+			if (url != null) {
+				try {
+					pack = new AssetPack(url);
+				} catch (IOException e) {
+					System.err.println("Can't open " + PACK + ", loading loose files: " + e);
+				}
+			}
+		}
+		return pack;
+	}
+	
+	public AssetPack(URL u) throws IOException {
+		url = u;
+		ByteBuffer data = map(u);
+		
+		if (data.remaining() < 9 || data.getInt() != MAGIC)
+			throw new IOException(u + " is not a Frogger asset pack");
+		if (data.get() != VERSION)
+			throw new IOException(u + " has an unsupported version");
+		
+		int n = data.getInt();
+		for (int i = 0; i < n; i++) {
+			String name = getString(data);
+			int offset = data.getInt();
+			int length = data.getInt();
+			
+			ByteBuffer e = data.duplicate();
+			e.limit(offset + length).position(offset);
+			entries.put(name, e.slice());
+		}
+	}
+	
+	/**
+	 * Map the pack when it's a plain file, read it when it's inside a jar
+	 */
+	private static ByteBuffer map(URL u) throws IOException {
+		if ("file".equals(u.getProtocol())) {
+			Path file;
+			try {
+				file = Paths.get(u.toURI());
+			} catch (URISyntaxException e) {
+				throw new IOException(e);
+			}
+			FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+			try {
+				return ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+			} finally {
+				ch.close();
+			}
+		}
+		
+		InputStream in = u.openStream();
+		try {
+			ByteArrayOutputStream b = new ByteArrayOutputStream();
+			byte [] buf = new byte[65536];
+			int n;
+			while ((n = in.read(buf)) > 0)
+				b.write(buf, 0, n);
+			return ByteBuffer.wrap(b.toByteArray());
+		} finally {
+			in.close();
+		}
+	}
+	
+	/**
+	 * @return where the pack was loaded from
+	 */
+	public URL getURL() {
+		return url;
+	}
+	
+	/**
+	 * @param name - resource path, like "resources/jump.wav"
+	 * @return read-only view of the entry, null if it isn't packed
+	 */
+	public ByteBuffer get(String name) {
+		ByteBuffer e = entries.get(name);
+		return e == null ? null : e.asReadOnlyBuffer();
+	}
+	
+	/**
+	 * @param name - resource path
+	 * @return stream over the entry, null if it isn't packed
+	 */
+	public InputStream open(String name) {
+		ByteBuffer e = get(name);
+		return e == null ? null : new BufferInputStream(e);
+	}
+	
+	/**
+	 * Register every packed frameset of the sheet with jig, the same 
+	 * frames loadResources() would cut out of it
+	 * 
+	 * @param sheet - sprite sheet resource path, framesets are named sheet#frameset
+	 * @return false if the sheet isn't packed
+	 */
+	public boolean loadSpriteSheet(String sheet) {
+		ByteBuffer s = get(sheet);
+		ByteBuffer f = get(FRAMESETS);
+		if (s == null || f == null)
+			return false;
+		
+		int w = s.getInt();
+		int h = s.getInt();
+		BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+		s.asIntBuffer().get(((DataBufferInt) img.getRaster().getDataBuffer()).getData());
+		
+		ResourceFactory factory = ResourceFactory.getFactory();
+		int n = f.getShort();
+		for (int i = 0; i < n; i++) {
+			String name = getString(f);
+			int left = f.getShort();
+			int top = f.getShort();
+			int fw = f.getShort();
+			int fh = f.getShort();
+			int columns = f.getShort();
+			int rows = f.getShort();
+			
+			BufferedImage [] frames = new BufferedImage[columns * rows];
+			for (int r = 0; r < rows; r++)
+				for (int c = 0; c < columns; c++)
+					frames[r * columns + c] = img.getSubimage(left + c * fw, top + r * fh, fw, fh);
+			factory.putFrames(sheet + "#" + name, frames);
+		}
+		return true;
+	}
+	
+	static String getString(ByteBuffer b) {
+		byte [] s = new byte[b.getShort()];
+		b.get(s);
+		return new String(s, UTF8);
+	}
+	
+	/**
+	 * Reads a buffer, what the audio decoders read packed sounds through
+	 */
+	static class BufferInputStream extends InputStream {
+		private final ByteBuffer buf;
+		private int mark = 0;
+		
+		BufferInputStream(ByteBuffer b) {
+			buf = b;
+		}
+		
+		public int read() {
+			return buf.hasRemaining() ? buf.get() & 0xff : -1;
+		}
+		
+		public int read(byte [] b, int off, int len) {
+			if (!buf.hasRemaining())
+				return len == 0 ? 0 : -1;
+			len = Math.min(len, buf.remaining());
+			buf.get(b, off, len);
+			return len;
+		}
+		
+		public long skip(long n) {
+			int k = (int) Math.max(0, Math.min(n, buf.remaining()));
+			buf.position(buf.position() + k);
+			return k;
+		}
+		
+		public int available() {
+			return buf.remaining();
+		}
+		
+		public boolean markSupported() {
+			return true;
+		}
+		
+		public void mark(int limit) {
+			mark = buf.position();
+		}
+		
+		public void reset() {
+			buf.position(mark);
+		}
+	}
+}
@@ -0,0 +1,248 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.awt.Graphics;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Build step writing the AssetPack the game starts from
+ * 
+ * Packs the sprite sheet as raw pixels, the framesets of frogger.xml and
+ * every .ogg and .wav file of the resource directory. Run it again whenever
+ * a resource changes; a stale pack is used as it is.
+ * 
+ * $ java -cp build:src:lib/jig-1.7.5.jar frogger.AssetPacker [resourceDir] [pack]
+ * 
+ * resourceDir defaults to src/resources and pack to frogger.pak in it, 
+ * copy it next to the compiled classes' resources/ like the other files.
+ * 
+ * @author vitaliy
+ *
+ */
+public class AssetPacker {
+	
+	static final String DEFAULT_DIR = "src/" + Main.RSC_PATH;
+	
+	private final Path dir;
+	private final Map<String, byte []> entries = new LinkedHashMap<String, byte []>();
+	
+	/**
+	 * @param d - directory holding resources.xml, frogger.xml and the sounds
+	 */
+	public AssetPacker(Path d) throws IOException {
+		dir = d;
+		
+		String sheet = Main.SPRITE_SHEET.substring(Main.RSC_PATH.length());
+		entries.put(Main.SPRITE_SHEET, pixels(dir.resolve(sheet)));
+		entries.put(AssetPack.FRAMESETS, framesets(dir.resolve("frogger.xml")));
+		addSounds(dir);
+	}
+	
+	/**
+	 * @return int width, int height and the ARGB pixels of an image
+	 */
+	private static byte [] pixels(Path file) throws IOException {
+		BufferedImage img = ImageIO.read(file.toFile());
+		if (img == null)
+			throw new IOException("Can't decode " + file);
+		
+		int w = img.getWidth();
+		int h = img.getHeight();
+		
+		// Converted like jig's sprite sheet loader does, so the frames come out identical
+		if (img.getTransparency() == Transparency.TRANSLUCENT) {
+			BufferedImage argbImg = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+			Graphics g = argbImg.getGraphics();
+			g.drawImage(img, 0, 0, null);
+			g.dispose();
+			img = argbImg;
+		}
+		int [] argb = img.getRGB(0, 0, w, h, null, 0, w);
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 + argb.length * 4);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(w);
+		out.writeInt(h);
+		for (int p : argb)
+			out.writeInt(p);
+		out.close();
+		return bytes.toByteArray();
+	}
+	
+	/**
+	 * @return frameset table of a jig frame description file
+	 */
+	private static byte [] framesets(Path file) throws IOException {
+		Document doc;
+		InputStream in = Files.newInputStream(file);
+		try {
+			doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(in);
+		} catch (Exception e) {
+			throw new IOException("Can't parse " + file, e);
+		} finally {
+			in.close();
+		}
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		NodeList sets = doc.getElementsByTagName("frameset");
+		out.writeShort(sets.getLength());
+		for (int i = 0; i < sets.getLength(); i++) {
+			Element e = (Element) sets.item(i);
+			putString(out, textValue(e, "name"));
+			out.writeShort(intValue(e, "left", 0));
+			out.writeShort(intValue(e, "top", 0));
+			out.writeShort(intValue(e, "width", 0));
+			out.writeShort(intValue(e, "height", 0));
+			out.writeShort(intValue(e, "columns", 1));
+			out.writeShort(intValue(e, "rows", 1));
+		}
+		out.close();
+		return bytes.toByteArray();
+	}
+	
+	private static String textValue(Element e, String tag) {
+		NodeList l = e.getElementsByTagName(tag);
+		if (l.getLength() == 0)
+			return null;
+		return l.item(0).getTextContent().trim();
+	}
+	
+	private static int intValue(Element e, String tag, int def) {
+		String s = textValue(e, tag);
+		return s == null ? def : Integer.parseInt(s);
+	}
+	
+	/**
+	 * Add the sound files of a directory and its sub-directories
+	 */
+	private void addSounds(Path d) throws IOException {
+		List<Path> subdirs = new ArrayList<Path>();
+		DirectoryStream<Path> files = Files.newDirectoryStream(d);
+		try {
+			for (Path f : files) {
+				String name = f.getFileName().toString();
+				if (Files.isDirectory(f) && !name.startsWith("."))
+					subdirs.add(f);
+				else if (name.endsWith(".ogg") || name.endsWith(".wav"))
+					entries.put(resourceName(f), Files.readAllBytes(f));
+			}
+		} finally {
+			files.close();
+		}
+		for (Path s : subdirs)
+			addSounds(s);
+	}
+	
+	private String resourceName(Path f) {
+		StringBuilder name = new StringBuilder(Main.RSC_PATH);
+		Path rel = dir.relativize(f);
+		for (int i = 0; i < rel.getNameCount(); i++) {
+			if (i > 0)
+				name.append('/');
+			name.append(rel.getName(i));
+		}
+		return name.toString();
+	}
+	
+	private static void putString(DataOutputStream out, String s) throws IOException {
+		byte [] b = s.getBytes(AssetPack.UTF8);
+		out.writeShort(b.length);
+		out.write(b);
+	}
+	
+	/**
+	 * @return names of the packed entries
+	 */
+	public List<String> getEntries() {
+		return new ArrayList<String>(entries.keySet());
+	}
+	
+	/**
+	 * Write the index followed by the entries
+	 */
+	public void write(OutputStream os) throws IOException {
+		ByteArrayOutputStream index = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(index);
+		
+		// Offsets come after the index, whose size is known up front
+		int offset = 9;
+		for (String name : entries.keySet())
+			offset += 2 + name.getBytes(AssetPack.UTF8).length + 8;
+		
+		out.writeInt(AssetPack.MAGIC);
+		out.writeByte(AssetPack.VERSION);
+		out.writeInt(entries.size());
+		for (Map.Entry<String, byte []> e : entries.entrySet()) {
+			putString(out, e.getKey());
+			out.writeInt(offset);
+			out.writeInt(e.getValue().length);
+			offset += e.getValue().length;
+		}
+		out.close();
+		
+		os.write(index.toByteArray());
+		for (byte [] data : entries.values())
+			os.write(data);
+	}
+	
+	public static void main(String[] args) throws IOException {
+		Path d = Paths.get(args.length > 0 ? args[0] : DEFAULT_DIR);
+		Path pack = args.length > 1 ? Paths.get(args[1]) : d.resolve("frogger.pak");
+		
+		AssetPacker packer = new AssetPacker(d);
+		OutputStream out = Files.newOutputStream(pack);
+		try {
+			packer.write(out);
+		} finally {
+			out.close();
+		}
+		System.out.println("packed " + packer.getEntries().size() + " entries into " 
+				+ pack + ", " + Files.size(pack) + " bytes");
+	}
+}
@@ -26,14 +26,8 @@
 package frogger;
 
 import java.util.List;
-import java.util.Random;
 import java.util.LinkedList;
 
-import jig.engine.ResourceFactory;
-import jig.engine.audio.AudioState;
-import jig.engine.audio.jsound.AudioClip;
-import jig.engine.audio.jsound.AudioStream;
-
 /**
  * Controls the audio effects
  * 
@@ -46,44 +40,51 @@ public class AudioEfx {
 	FroggerCollisionDetection fc;
 	Frogger frog;
 	
-	public Random rand = new Random(System.currentTimeMillis());
+	public GameRandom rand;
 	
-	// Background music
-	private AudioStream gameMusic;
+	// Background music, starts looping in update() if requested before it's loaded
+	private AssetLoader.Sound gameMusic;
+	private boolean gameMusicRequested = false;
 	
 	public static final String A_FX_PATH = Main.RSC_PATH + "ambient_fx/";
 	
-	public static AudioClip frogJump = ResourceFactory.getFactory().getAudioClip(
-			Main.RSC_PATH + "jump.wav");
-	
-	public static AudioClip frogDie = ResourceFactory.getFactory().getAudioClip(
-			Main.RSC_PATH + "frog_die.ogg");	
-
-	public static AudioClip frogGoal = ResourceFactory.getFactory().getAudioClip(
-			Main.RSC_PATH + "goal.ogg");
-	
-	public static AudioClip levelGoal = ResourceFactory.getFactory().getAudioClip(
-			Main.RSC_PATH + "level_goal.ogg");
-
-	public static AudioClip wind = ResourceFactory.getFactory().getAudioClip(
-			Main.RSC_PATH + "wind.ogg");
-	
-	public static AudioClip heat = ResourceFactory.getFactory().getAudioClip(
-			Main.RSC_PATH + "match.ogg");
-	
-	public static AudioClip bonus = ResourceFactory.getFactory().getAudioClip(
-			Main.RSC_PATH + "bonus.ogg");	
-	
-	public static AudioClip siren = ResourceFactory.getFactory().getAudioClip(
-			A_FX_PATH + "siren.ogg");
+	static final String GAME_MUSIC = Main.RSC_PATH + "bg_music.ogg";
+	
+	// Heard all the time, decoded at startup
+	static final String [] CLIPS = {
+		Main.RSC_PATH + "jump.wav",
+		Main.RSC_PATH + "frog_die.ogg",
+		Main.RSC_PATH + "goal.ogg",
+		Main.RSC_PATH + "level_goal.ogg",
+		Main.RSC_PATH + "wind.ogg",
+		Main.RSC_PATH + "match.ogg"
+	};
+	
+	// Mixer priorities, a sound takes voices from sounds of the same or lower one
+	private static final int P_AMBIENT = 0;
+	private static final int P_JUMP    = 1;
+	private static final int P_STINGER = 2;
+	private static final int P_EVENT   = 3;
+	private static final int P_LEVEL   = 4;
+	
+	private AssetLoader.Sound frogJump;
+	private AssetLoader.Sound frogDie;
+	private AssetLoader.Sound frogGoal;
+	private AssetLoader.Sound levelGoal;
+	private AssetLoader.Sound wind;
+	private AssetLoader.Sound heat;
+	private AssetLoader.Sound bonus;
 	
 	// one effect is randomly picked from road_effects or water_effects every couple of seconds
-	private List<AudioClip> road_effects = new LinkedList<AudioClip>();
-	private List<AudioClip> water_effects = new LinkedList<AudioClip>();
+	private List<AssetLoader.Sound> road_effects = new LinkedList<AssetLoader.Sound>();
+	private List<AssetLoader.Sound> water_effects = new LinkedList<AssetLoader.Sound>();
 	
 	private int effectsDelay = 3000;
 	private int deltaT = 0;
 	
+	// false when no clips were loaded, all play-back calls are then ignored
+	private boolean sound;
+	
 	/**
 	 * In order to know when to play-back certain effects, we track the state of 
 	 * collision detector and Frogger
@@ -91,27 +92,90 @@ public class AudioEfx {
 	 * @param frg
 	 */
 	public AudioEfx(FroggerCollisionDetection f, Frogger frg) {
+		this(f, frg, true, new GameRandom(System.currentTimeMillis()));
+	}
+	
+	/**
+	 * @param f
+	 * @param frg
+	 * @param s - false builds a silent AudioEfx that loads nothing, used by headless runs
+	 * @param r - picks the ambient effects
+	 */
+	public AudioEfx(FroggerCollisionDetection f, Frogger frg, boolean s, GameRandom r) {
 		fc = f;
 		frog = frg;
+		sound = s;
+		rand = r;
+		
+		if (!sound)
+			return;
+		
+		AssetLoader loader = AssetLoader.getLoader();
+		frogJump  = loader.clip(CLIPS[0]);
+		frogDie   = loader.clip(CLIPS[1]);
+		frogGoal  = loader.clip(CLIPS[2]);
+		levelGoal = loader.clip(CLIPS[3]);
+		wind      = loader.clip(CLIPS[4]);
+		heat      = loader.clip(CLIPS[5]);
+		
+		// Rarely heard, decoded when first played
+		bonus     = loader.lazyClip(Main.RSC_PATH + "bonus.ogg");
 		
-		road_effects.add(ResourceFactory.getFactory().getAudioClip(A_FX_PATH + "long-horn.ogg"));
-	    road_effects.add(ResourceFactory.getFactory().getAudioClip(A_FX_PATH + "car-pass.ogg"));
-		road_effects.add(ResourceFactory.getFactory().getAudioClip(A_FX_PATH + "siren.ogg"));
+		road_effects.add(loader.lazyClip(A_FX_PATH + "long-horn.ogg"));
+	    road_effects.add(loader.lazyClip(A_FX_PATH + "car-pass.ogg"));
+		road_effects.add(loader.lazyClip(A_FX_PATH + "siren.ogg"));
 
-		water_effects.add(ResourceFactory.getFactory().getAudioClip(A_FX_PATH + "water-splash.ogg"));
-	    water_effects.add(ResourceFactory.getFactory().getAudioClip(A_FX_PATH + "splash.ogg"));
-		water_effects.add(ResourceFactory.getFactory().getAudioClip(A_FX_PATH + "frog.ogg"));
+		water_effects.add(loader.lazyClip(A_FX_PATH + "water-splash.ogg"));
+	    water_effects.add(loader.lazyClip(A_FX_PATH + "splash.ogg"));
+		water_effects.add(loader.lazyClip(A_FX_PATH + "frog.ogg"));
 
-		gameMusic = new AudioStream(Main.RSC_PATH + "bg_music.ogg");
+		gameMusic = loader.clip(GAME_MUSIC);
+	}
+	
+	/**
+	 * Start decoding the sounds heard all the time, call as early as possible
+	 */
+	public static void preload() {
+		AssetLoader loader = AssetLoader.getLoader();
+		loader.clip(GAME_MUSIC);
+		for (String c : CLIPS)
+			loader.clip(c);
 	}
 	
 	public void playGameMusic() {
-	    gameMusic.loop(0.2, 0);
+		if (!sound) return;
+		gameMusicRequested = !gameMusic.loop(0.2);
 	}
 	
 	public void playCompleteLevel() {
-		gameMusic.pause();
-		levelGoal.play(2.0);
+		if (!sound) return;
+		gameMusicRequested = false;
+		SoundMixer.getMixer().pauseMusic();
+		levelGoal.play(2.0, P_LEVEL, 1);
+	}
+	
+	public void playFrogJump() {
+		if (sound) frogJump.play(0.2, P_JUMP, 2);
+	}
+	
+	public void playFrogDie() {
+		if (sound) frogDie.play(0.2, P_EVENT, 1);
+	}
+	
+	public void playFrogGoal() {
+		if (sound) frogGoal.play(0.4, P_EVENT, 2);
+	}
+	
+	public void playBonus() {
+		if (sound) bonus.play(0.2, P_STINGER, 1);
+	}
+	
+	public void playWind() {
+		if (sound) wind.play(0.2, P_STINGER, 1);
+	}
+	
+	public void playHeat() {
+		if (sound) heat.play(0.2, P_STINGER, 1);
 	}
 	
 	public void playRandomAmbientSound(final long deltaMs) {
@@ -119,24 +183,29 @@ public class AudioEfx {
 		
 		if (deltaT > effectsDelay && fc.isOnRoad()) {
 			deltaT = 0;
-			road_effects.get(rand.nextInt(road_effects.size())).play(0.2);
+			road_effects.get(rand.nextInt(road_effects.size())).play(0.2, P_AMBIENT, 1);
 		}
 		
 		if (deltaT > effectsDelay && fc.isInRiver()) {
 			deltaT = 0;
-			water_effects.get(rand.nextInt(road_effects.size())).play(0.2);
+			water_effects.get(rand.nextInt(road_effects.size())).play(0.2, P_AMBIENT, 1);
 		}
 	}
 	
 	public void update(final long deltaMs) {
+		if (!sound)
+			return;
+		
 		playRandomAmbientSound(deltaMs);
 		
-		if (frog.isAlive && (gameMusic.getState() == AudioState.PAUSED))
-			gameMusic.resume();
+		if (gameMusicRequested)
+			playGameMusic();
 		
-		if (!frog.isAlive && (gameMusic.getState() == AudioState.PLAYING))
-			gameMusic.pause();	
-
+		SoundMixer mixer = SoundMixer.getMixer();
+		if (frog.isAlive && !gameMusicRequested)
+			mixer.resumeMusic();
+		if (!frog.isAlive)
+			mixer.pauseMusic();
 	}
 
 }
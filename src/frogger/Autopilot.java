@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.awt.event.KeyEvent;
+
+import jig.engine.KeyInfo;
+import jig.engine.Keyboard;
+
+/**
+ * Keyboard played by the PathPlanner, for attract mode and soak tests
+ * 
+ * Keys are held for one tick and released for at least one, the input
+ * handlers only take a new key after a release. Menus and level ends are
+ * skipped with the space bar. With noise, some decisions are a random key
+ * instead, a player that slips now and then, see DifficultyEvaluator.
+ * 
+ * @author vitaliy
+ *
+ */
+public class Autopilot implements Keyboard {
+	
+	private static final int[] KEYS = {
+		0, KeyEvent.VK_UP, KeyEvent.VK_DOWN, KeyEvent.VK_LEFT, KeyEvent.VK_RIGHT
+	};
+	
+	private FroggerWorld world;
+	private PathPlanner planner;
+	
+	private int key = 0;
+	
+	// Chance of a random key instead of the planned one, in percent
+	private GameRandom noise = null;
+	private int noisePercent = 0;
+	
+	private long lastTimeMs;
+	private long deltaMs = 16;
+	
+	private long plans = 0;
+	private long planNanos = 0;
+	private long maxPlanNanos = 0;
+	
+	public Autopilot(FroggerWorld w) {
+		world = w;
+		planner = new PathPlanner(w);
+		lastTimeMs = w.getTime();
+	}
+	
+	/**
+	 * @param r - random keys are drawn from r
+	 * @param percent - chance of a random key on each decision
+	 */
+	public void setNoise(GameRandom r, int percent) {
+		noise = r;
+		noisePercent = percent;
+	}
+	
+	public void poll() {
+		// The world clock was already advanced by this tick's update
+		long now = world.getTime();
+		if (now > lastTimeMs)
+			deltaMs = now - lastTimeMs;
+		lastTimeMs = now;
+		
+		if (key != 0) {
+			key = 0;
+			return;
+		}
+		
+		if (world.GameState != Main.GAME_PLAY) {
+			key = KeyEvent.VK_SPACE;
+			return;
+		}
+		
+		if (!world.frog.isAlive || world.frog.isAnimating())
+			return;
+		
+		if (noise != null && noise.nextInt(100) < noisePercent) {
+			key = KEYS[noise.nextInt(KEYS.length)];
+			return;
+		}
+		
+		long t0 = System.nanoTime();
+		key = KEYS[planner.plan(deltaMs)];
+		long t = System.nanoTime() - t0;
+		
+		plans++;
+		planNanos += t;
+		if (t > maxPlanNanos)
+			maxPlanNanos = t;
+	}
+
+	public boolean isPressed(int keyCode) {
+		return key != 0 && keyCode == key;
+	}
+
+	public KeyInfo get() {
+		return null;
+	}
+	
+	public long getPlans() {
+		return plans;
+	}
+	
+	public double getMeanPlanMicros() {
+		return plans == 0 ? 0 : planNanos / 1e3 / plans;
+	}
+	
+	public double getMaxPlanMicros() {
+		return maxPlanNanos / 1e3;
+	}
+}
@@ -25,17 +25,46 @@
 
 package frogger;
 
+import jig.engine.ResourceFactory;
 import jig.engine.util.Vector2D;
  
 public class Car extends MovingEntity {
 	public final static int TYPES  = 3;
 	public final static int LENGTH = 32*1;
 	
+	// Sprite of every car type, built once so that recycling doesn't allocate
+	private final static String [] SPRITES = new String[TYPES];
+	static {
+		for (int i = 0; i < TYPES; i++)
+			SPRITES[i] = Main.SPRITE_SHEET + "#car" + i;
+	}
+	
+	private int carId;
+	
 	public Car (Vector2D pos, Vector2D v, int randId) {
-		super(Main.SPRITE_SHEET + "#car" + randId);
-		position = pos;
-		collisionObjects.add(new CollisionObject(position));
-		velocity = v;
+		super(SPRITES[randId]);
+		carId = randId;
+		setShape(1, WIDE);
+		reset(pos, v);
+	}
+	
+	/**
+	 * Recycle as a car of possibly different looks
+	 * 
+	 * @param pos
+	 * @param v
+	 * @param randId - one of TYPES car sprites
+	 */
+	public void reset(Vector2D pos, Vector2D v, int randId) {
+		if (randId != carId) {
+			carId = randId;
+			frames = ResourceFactory.getFactory().getFrames(SPRITES[randId]);
+		}
+		reset(pos, v);
+	}
+	
+	public void reset(Vector2D pos, Vector2D v) {
+		super.reset(pos, v);
 		if (v.getX() < 0)
 			setFrame(1);
 		else
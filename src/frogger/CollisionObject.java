@@ -24,11 +24,16 @@
  */
 
 package frogger;
+import jig.engine.RenderingContext;
 import jig.engine.physics.vpe.VanillaSphere;
 import jig.engine.util.Vector2D;
 
 
 public class CollisionObject extends VanillaSphere {
+	
+	// Top left corner of the sphere, kept in primitives like in MovingEntity
+	protected double x;
+	protected double y;
 
 	public CollisionObject(Vector2D pos) {
 		super("col");
@@ -45,9 +50,39 @@ public class CollisionObject extends VanillaSphere {
 	 * that it appears in the middle of the object
 	 */
 	public void setPosition(Vector2D pos) {
-		double dX = 16 - getRadius();
-		double dY = -getRadius() +16;
-		position = new Vector2D(pos.getX()+dX, pos.getY()+dY);
+		setPosition(pos.getX(), pos.getY());
+	}
+	
+	public void setPosition(double px, double py) {
+		x = px + 16 - radius;
+		y = py + 16 - radius;
+	}
+	
+	public double getCenterX() {
+		return x + radius;
+	}
+	
+	public double getCenterY() {
+		return y + radius;
+	}
+	
+	/**
+	 * Read-only view of x, y, a new vector is built only if the sphere moved
+	 * since the last call
+	 */
+	public Vector2D getPosition() {
+		if (position == null || position.getX() != x || position.getY() != y)
+			position = new Vector2D(x, y);
+		return position;
+	}
+	
+	public Vector2D getCenterPosition() {
+		return new Vector2D(getCenterX(), getCenterY());
+	}
+	
+	public void render(RenderingContext rc) {
+		getPosition();
+		super.render(rc);
 	}
 	
 	public void update(long deltaMs) {
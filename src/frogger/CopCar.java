@@ -31,9 +31,12 @@ public class CopCar extends MovingEntity {
 	
 	public CopCar (Vector2D pos, Vector2D v) {
 		super(Main.SPRITE_SHEET + "#copcar");
-		position = pos;
-		collisionObjects.add(new CollisionObject(position));
-		velocity = v;
+		setShape(1, WIDE);
+		reset(pos, v);
+	}
+	
+	public void reset(Vector2D pos, Vector2D v) {
+		super.reset(pos, v);
 		if (v.getX() < 0)
 			setFrame(1);
 		else
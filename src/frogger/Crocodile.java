@@ -35,33 +35,36 @@ public class Crocodile extends MovingEntity {
 	private int startFrame = 0;
 	private int nextFrame = 0;
 	
-	protected CollisionObject head;
+	// Interval of the collision shape that bites
+	protected int head;
 	
 	public Crocodile (Vector2D pos, Vector2D v) {
 		super(Main.SPRITE_SHEET + "#crocodile");
-		position = pos;
-		Vector2D posSphere1 = position;
-		Vector2D posSphere2 = new Vector2D(position.getX()+32*1, position.getY());
-		Vector2D posSphere3 = new Vector2D(position.getX()+32*2, position.getY());
-		Vector2D posSphere4 = new Vector2D(position.getX()+32*3, position.getY());
-		collisionObjects.add(new CollisionObject("colSmall",posSphere1));
-		collisionObjects.add(new CollisionObject("colSmall",posSphere2));
-		collisionObjects.add(new CollisionObject("colSmall",posSphere3));
-		collisionObjects.add(new CollisionObject("colSmall",posSphere4));
-		velocity = v;
+		setShape(4, NARROW);
+		reset(pos, v);
+	}
+	
+	public void reset(Vector2D pos, Vector2D v) {
+		super.reset(pos, v);
+		animationTime = 0;
+		nextFrame = 0;
 		
 		if (v.getX() < 0) {
 			startFrame = 2;
-			head = collisionObjects.get(0);
+			head = 0;
 		}
 		else {
 			startFrame = 0;
-			head = collisionObjects.get(3);
+			head = 3;
 		}
 		
 		setFrame(startFrame);
 	}
 	
+	public boolean isAnimated() {
+		return true;
+	}
+	
 	public void animate(long deltaMs) {
 		animationTime += deltaMs;
 		if (animationTime > animationDelay) {
@@ -71,8 +74,14 @@ public class Crocodile extends MovingEntity {
 		}
 	}
 
-	public void update(final long deltaMs) {
-		super.update(deltaMs);
-	    animate(deltaMs);
+	public void advance(long ms, long stepMs) {
+		super.advance(ms, stepMs);
+		
+		// animate(stepMs) flips the frame every period steps
+		long period = animationDelay / stepMs + 1;
+		long steps = animationTime / stepMs + ms / stepMs;
+		animationTime = (steps % period) * stepMs;
+		nextFrame = (int) ((nextFrame + steps / period) % 2);
+		setFrame(nextFrame+startFrame);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,323 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Measures how hard each level is by playing many headless games
+ * 
+ * Every trial is one Frogger life on the level, played by the Autopilot
+ * with some noise in its decisions, until the frog dies, reaches a goal
+ * or HORIZON_MS of play pass. A perfect player would clear every level,
+ * a random one none; the noisy planner slips about as often on every 
+ * level, so what tells levels apart is how often a slip is fatal.
+ * 
+ * Besides survival, the report has each row's hazard: the share of 
+ * trials that got to the row and died on it. Trials run on a ForkJoinPool;
+ * each one has its own seed derived from the trial number, so the report
+ * does not depend on the number of threads.
+ * 
+ * $ java -cp build:src:lib/jig-1.7.5.jar frogger.DifficultyEvaluator [trials] [maxLevel] [seed] [threads]
+ * 
+ * @author vitaliy
+ *
+ */
+public class DifficultyEvaluator {
+	
+	static final long DELTA_MS   = 16;
+	static final long HORIZON_MS = 30000;
+	
+	// Trials run sequentially by one fork/join leaf
+	static final int LEAF_TRIALS = 8;
+	
+	// Chance of a random key instead of the planned one, in percent
+	static final int NOISE_PERCENT = 2;
+	
+	// Rows with hazards, from the one below the goals to the one above the start
+	static final int FIRST_ROW = PathPlanner.GOAL_ROW + 1;
+	static final int LAST_ROW  = PathPlanner.ROWS - 2;
+	
+	// 95% confidence
+	static final double Z = 1.96;
+	
+	/**
+	 * Outcome counters of the trials of one level
+	 */
+	public static class LevelStats {
+		public final int level;
+		// Mean lane speed-up of the level, from the lane config the trials played
+		public double speedUp = 1;
+		public int trials = 0;
+		public int survived = 0;
+		public int goals = 0;
+		public long rows = 0;
+		
+		// Per row, trials that got to it and trials that died on it
+		public final int[] visits = new int[PathPlanner.ROWS];
+		public final int[] deaths = new int[PathPlanner.ROWS];
+		
+		public LevelStats(int l) {
+			level = l;
+		}
+		
+		LevelStats merge(LevelStats s) {
+			speedUp = s.speedUp;
+			trials += s.trials;
+			survived += s.survived;
+			goals += s.goals;
+			rows += s.rows;
+			for (int r = 0; r < visits.length; r++) {
+				visits[r] += s.visits[r];
+				deaths[r] += s.deaths[r];
+			}
+			return this;
+		}
+		
+		/**
+		 * Frog alive at the end of the trial, on a goal or still on its way
+		 */
+		public double getSurvivalRate() {
+			return (double) survived / trials;
+		}
+		
+		public double getGoalRate() {
+			return (double) goals / trials;
+		}
+		
+		/**
+		 * Mean number of rows the frog made it up the screen
+		 */
+		public double getMeanRows() {
+			return (double) rows / trials;
+		}
+		
+		/**
+		 * @param r - row
+		 * @return share of the trials that got to the row and died on it
+		 */
+		public double getHazard(int r) {
+			return visits[r] == 0 ? 0 : (double) deaths[r] / visits[r];
+		}
+		
+		/**
+		 * Hazard of every row from FIRST_ROW to LAST_ROW, in percent
+		 */
+		public String hazards() {
+			StringBuilder sb = new StringBuilder(String.format("%5d", level));
+			for (int r = FIRST_ROW; r <= LAST_ROW; r++)
+				sb.append(String.format(" %5.1f", 100 * getHazard(r)));
+			return sb.toString();
+		}
+		
+		public String toString() {
+			return String.format("%5d %6.2f %7d   %5.3f [%5.3f, %5.3f]   %5.3f [%5.3f, %5.3f]   %5.2f",
+					level, speedUp, trials,
+					getSurvivalRate(), wilsonLow(survived, trials), wilsonHigh(survived, trials),
+					getGoalRate(), wilsonLow(goals, trials), wilsonHigh(goals, trials),
+					getMeanRows());
+		}
+	}
+	
+	/**
+	 * A range of trials of one level, split until LEAF_TRIALS are left
+	 */
+	static class Trials extends RecursiveTask<LevelStats> {
+		private static final long serialVersionUID = 1L;
+		
+		final int level;
+		final long seed;
+		final int lo;
+		final int hi;
+		
+		Trials(int level, long seed, int lo, int hi) {
+			this.level = level;
+			this.seed = seed;
+			this.lo = lo;
+			this.hi = hi;
+		}
+		
+		protected LevelStats compute() {
+			if (hi - lo <= LEAF_TRIALS) {
+				LevelStats s = new LevelStats(level);
+				for (int i = lo; i < hi; i++)
+					trial(level, trialSeed(seed, level, i), s);
+				return s;
+			}
+			
+			int mid = (lo + hi) >>> 1;
+			Trials left = new Trials(level, seed, lo, mid);
+			left.fork();
+			LevelStats s = new Trials(level, seed, mid, hi).compute();
+			return s.merge(left.join());
+		}
+	}
+	
+	private ForkJoinPool pool;
+	
+	public DifficultyEvaluator(ForkJoinPool p) {
+		pool = p;
+	}
+	
+	/**
+	 * Run the same number of trials on each level, all levels at once
+	 * 
+	 * @return one entry per level, from level 1 to maxLevel
+	 */
+	public LevelStats[] sweep(int maxLevel, int trials, long seed) {
+		HeadlessResourceFactory.install();
+		
+		List<ForkJoinTask<LevelStats>> tasks = new ArrayList<ForkJoinTask<LevelStats>>(maxLevel);
+		for (int l = 1; l <= maxLevel; l++)
+			tasks.add(pool.submit(new Trials(l, seed, 0, trials)));
+		
+		LevelStats[] stats = new LevelStats[maxLevel];
+		for (int l = 1; l <= maxLevel; l++)
+			stats[l-1] = tasks.get(l-1).join();
+		return stats;
+	}
+	
+	static long trialSeed(long seed, int level, int trial) {
+		return (seed * 1000003 + level) * 1000003 + trial;
+	}
+	
+	/**
+	 * Play one life on the level and count its outcome
+	 */
+	static void trial(int level, long seed, LevelStats s) {
+		HeadlessMain h = new HeadlessMain(seed);
+		FroggerWorld w = h.getWorld();
+		s.speedUp = w.getLaneConfig().getMeanSpeedUp(level);
+		
+		w.newGame();
+		if (level != Main.STARTING_LEVEL) {
+			w.GameLevel = level;
+			w.initializeLevel(level);
+		}
+		
+		Autopilot pilot = new Autopilot(w);
+		pilot.setNoise(new GameRandom(~seed), NOISE_PERCENT);
+		w.setKeyboard(pilot);
+		
+		int lives = w.GameLives;
+		int unreached = w.goalmanager.getUnreachedCount();
+		double minY = w.frog.getY();
+		boolean[] visited = new boolean[PathPlanner.ROWS];
+		
+		boolean alive = true;
+		boolean goal = false;
+		
+		for (long t = 0; t < HORIZON_MS; t += DELTA_MS) {
+			h.tick(DELTA_MS);
+			
+			if (w.frog.getY() < minY)
+				minY = w.frog.getY();
+			
+			// The sphere is at the row the frog hops to, where it gets hit
+			int row = LaneIndex.rowOf(w.frogCol.frogSphere.getCenterY());
+			if (row >= 0 && row < visited.length)
+				visited[row] = true;
+			
+			if (w.GameLives < lives) {
+				alive = false;
+				if (row >= 0 && row < visited.length)
+					s.deaths[row]++;
+				break;
+			}
+			if (w.goalmanager.getUnreachedCount() < unreached) {
+				goal = true;
+				break;
+			}
+		}
+		
+		s.trials++;
+		if (alive)
+			s.survived++;
+		if (goal)
+			s.goals++;
+		s.rows += goal ? Main.WORLD_HEIGHT/32 - 2 
+				: Math.round((Main.FROGGER_START.getY() - minY) / 32);
+		for (int r = 0; r < visited.length; r++)
+			if (visited[r])
+				s.visits[r]++;
+	}
+	
+	/**
+	 * Wilson score interval of a binomial proportion
+	 */
+	static double wilsonLow(int k, int n) {
+		return wilsonCenter(k, n) - wilsonHalfWidth(k, n);
+	}
+	
+	static double wilsonHigh(int k, int n) {
+		return wilsonCenter(k, n) + wilsonHalfWidth(k, n);
+	}
+	
+	private static double wilsonCenter(int k, int n) {
+		double p = (double) k / n;
+		return (p + Z*Z / (2*n)) / (1 + Z*Z / n);
+	}
+	
+	private static double wilsonHalfWidth(int k, int n) {
+		double p = (double) k / n;
+		return Z / (1 + Z*Z / n) * Math.sqrt(p*(1 - p) / n + Z*Z / (4.0*n*n));
+	}
+	
+	public static void main(String[] args) {
+		int trials = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int maxLevel = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+		int threads = args.length > 3 ? Integer.parseInt(args[3]) 
+				: Runtime.getRuntime().availableProcessors();
+		
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		DifficultyEvaluator e = new DifficultyEvaluator(pool);
+		
+		long t0 = System.nanoTime();
+		LevelStats[] stats = e.sweep(maxLevel, trials, seed);
+		long t1 = System.nanoTime();
+		pool.shutdown();
+		
+		System.out.println("level  speed  trials   survival (95% CI)        goal (95% CI)            rows");
+		for (LevelStats s : stats)
+			System.out.println(s);
+		
+		System.out.println();
+		System.out.println("hazard by row, % of the trials on the row that died there");
+		StringBuilder header = new StringBuilder("level");
+		for (int r = FIRST_ROW; r <= LAST_ROW; r++)
+			header.append(String.format(" %5d", r));
+		System.out.println(header);
+		for (LevelStats s : stats)
+			System.out.println(s.hazards());
+		System.out.println(maxLevel * trials + " trials on " + threads + " threads in " 
+				+ ((t1 - t0) / 1e6) + " ms");
+	}
+}
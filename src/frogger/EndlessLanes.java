@@ -0,0 +1,270 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import jig.engine.util.Vector2D;
+
+/**
+ * Procedurally generated lanes of the endless mode
+ * 
+ * The world keeps its fixed 13x14 tile screen. Whenever Frogger hops above 
+ * SCROLL_ROW everything moves one row down: the bottom row and its traffic
+ * drop out of the world and a freshly generated lane comes in at the top.
+ * Only the lanes on screen exist and are simulated. A new lane starts from
+ * its spawn state and is fast-forwarded with FroggerWorld.prePopulate, as
+ * if it had been running all along, so memory and CPU stay flat however
+ * far the player climbs.
+ * 
+ * Lanes come in blocks of up to MAX_BLOCK roads or river lanes with a row
+ * of grass in between. Every random decision is drawn from this class' own
+ * GameRandom, the same seed climbs through the same lanes.
+ * 
+ * @author vitaliy
+ *
+ */
+public class EndlessLanes {
+	
+	// Frogger hopping above this row scrolls the world
+	static final int SCROLL_ROW = 7;
+	
+	// Rows to climb for the next level, new lanes run faster
+	static final int ROWS_PER_LEVEL = 20;
+	
+	// Longest run of roads or river lanes between two rows of grass
+	static final int MAX_BLOCK = 5;
+	
+	private final FroggerWorld world;
+	private final GameRandom random;
+	
+	// Lane, factory and traffic of every row on screen, null for grass
+	private final LaneConfig.Lane [] rows;
+	private final MovingEntityFactory [] factories;
+	private final TrafficLane [] traffic;
+	
+	// Lanes left in the current block and whether it's a river
+	private int blockLeft = 0;
+	private boolean blockRiver = false;
+	
+	private int startLevel = Main.STARTING_LEVEL;
+	private int climbed = 0;
+	
+	// Changes whenever the rows do, see SceneCache.compose
+	private int version = 0;
+	
+	/**
+	 * @param w - world the lanes' traffic goes to
+	 * @param rnd - decides the lanes
+	 */
+	public EndlessLanes(FroggerWorld w, GameRandom rnd) {
+		world = w;
+		random = rnd;
+		rows = new LaneConfig.Lane[Main.WORLD_HEIGHT / LaneIndex.ROW_HEIGHT];
+		factories = new MovingEntityFactory[rows.length];
+		traffic = new TrafficLane[rows.length];
+	}
+	
+	/**
+	 * Fill the screen with new lanes, Frogger starts on the grass at the bottom
+	 * @param level
+	 */
+	public void reset(int level) {
+		startLevel = level;
+		climbed = 0;
+		blockLeft = 0;
+		version++;
+		
+		for (int r = rows.length - 1; r >= 0; r--)
+			generate(r);
+	}
+	
+	/**
+	 * Let every lane on screen build its next entity and move
+	 * @param deltaMs
+	 * @return number of entities that went out of play
+	 */
+	public int cycle(long deltaMs) {
+		int dropped = 0;
+		for (int r = 0; r < rows.length; r++) {
+			if (rows[r] != null) {
+				world.spawn(-1, rows[r], traffic[r], FroggerWorld.build(rows[r], factories[r], deltaMs));
+				dropped += traffic[r].update(deltaMs);
+			}
+		}
+		return dropped;
+	}
+	
+	/**
+	 * Scroll the world one row down once Frogger landed above SCROLL_ROW
+	 * 
+	 * @return true if it scrolled
+	 */
+	public boolean scroll() {
+		Frogger frog = world.frog;
+		if (!frog.isAlive || frog.isAnimating() || LaneIndex.rowOf(frog.getY()) >= SCROLL_ROW)
+			return false;
+		
+		// Traffic of the bottom row leaves the world, the rest moves down
+		MovingEntityLayer layer = world.movingObjectsLayer;
+		for (int i = 0; i < layer.size(); i++) {
+			MovingEntity m = layer.get(i);
+			if (LaneIndex.rowOf(m.getY()) >= rows.length - 1)
+				m.setActivation(false);
+			else
+				m.scroll(LaneIndex.ROW_HEIGHT);
+		}
+		frog.scroll(LaneIndex.ROW_HEIGHT);
+		
+		for (int r = rows.length - 1; r > 0; r--) {
+			rows[r] = rows[r - 1];
+			factories[r] = factories[r - 1];
+			traffic[r] = traffic[r - 1];
+			if (factories[r] != null) {
+				Vector2D p = factories[r].position;
+				factories[r].position = new Vector2D(p.getX(), p.getY() + LaneIndex.ROW_HEIGHT);
+			}
+		}
+		
+		// Every entity changed its row
+		layer.removeInactive(world.pool);
+		world.lanes.clear();
+		for (int r = 1; r < rows.length; r++) {
+			if (traffic[r] != null)
+				world.lanes.addTraffic(traffic[r], r);
+		}
+		for (int i = 0; i < layer.size(); i++) {
+			MovingEntity m = layer.get(i);
+			if (m.isActive())
+				world.lanes.add(m);
+		}
+		
+		climbed++;
+		version++;
+		generate(0);
+		return true;
+	}
+	
+	/**
+	 * Generate the next lane up and put it in a row, with its traffic
+	 * @param row
+	 */
+	private void generate(int row) {
+		LaneConfig.Lane l = nextLane(row);
+		rows[row] = l;
+		factories[row] = null;
+		traffic[row] = null;
+		if (l == null)
+			return;
+		
+		factories[row] = new MovingEntityFactory(l.getStart(), l.getVelocity(getLevel()), 
+				world.pool, random.split());
+		traffic[row] = new TrafficLane(factories[row].velocity.getX());
+		world.lanes.addTraffic(traffic[row], row);
+		world.prePopulate(-1, l, factories[row], traffic[row], 
+				FroggerWorld.WARMUP_MS, FroggerWorld.WARMUP_STEP_MS);
+	}
+	
+	/**
+	 * @param row - screen row the lane starts in
+	 * @return next lane of the current block, or null for grass between blocks
+	 */
+	private LaneConfig.Lane nextLane(int row) {
+		if (blockLeft == 0) {
+			blockLeft = 1 + random.nextInt(MAX_BLOCK);
+			blockRiver = random.nextBoolean();
+			return null;
+		}
+		blockLeft--;
+		
+		int dir = random.nextBoolean() ? 1 : -1;
+		int height = climbed + rows.length - 1 - row;
+		
+		if (!blockRiver) {
+			double speed = 0.04 + 0.02 * random.nextInt(5);
+			return new LaneConfig.Lane("road@" + height, row, dir, speed, 0.05, 
+					dir > 0 ? 128 : 0, LaneConfig.VEHICLES, 50, 20);
+		}
+		
+		double speed = 0.04 + 0.01 * random.nextInt(6);
+		int alt = 10 + 10 * random.nextInt(5);
+		if (random.nextInt(100) < 60)
+			return new LaneConfig.Lane("river@" + height, row, dir, speed, 0.05, 
+					dir > 0 ? 96 : 0, LaneConfig.TURTLES, 80, alt);
+		return new LaneConfig.Lane("river@" + height, row, dir, speed, 0.05, 
+				dir > 0 ? 128 : 0, LaneConfig.CROCODILES, 80, alt);
+	}
+	
+	/**
+	 * @return level of the lanes coming in, one more every ROWS_PER_LEVEL rows
+	 */
+	public int getLevel() {
+		return startLevel + climbed / ROWS_PER_LEVEL;
+	}
+	
+	/**
+	 * @return rows scrolled since reset
+	 */
+	public int getClimbed() {
+		return climbed;
+	}
+	
+	public int getVersion() {
+		return version;
+	}
+	
+	public int getNumRows() {
+		return rows.length;
+	}
+	
+	/**
+	 * @param row - screen row
+	 * @return lane in the row, null for grass
+	 */
+	public LaneConfig.Lane getLane(int row) {
+		if (row < 0 || row >= rows.length)
+			return null;
+		return rows[row];
+	}
+	
+	public boolean isRiver(int row) {
+		LaneConfig.Lane l = getLane(row);
+		return l != null && l.mix != LaneConfig.VEHICLES;
+	}
+	
+	public boolean isRoad(int row) {
+		LaneConfig.Lane l = getLane(row);
+		return l != null && l.mix == LaneConfig.VEHICLES;
+	}
+	
+	/**
+	 * @return lowest row of grass on screen, where Frogger comes back after dying
+	 */
+	public int getStartRow() {
+		for (int r = rows.length - 1; r >= 0; r--)
+			if (rows[r] == null)
+				return r;
+		return rows.length - 1;
+	}
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+/**
+ * Frame time histograms, one per phase of the update and render loop
+ * 
+ * Each phase is timed with System.nanoTime() by chaining laps:
+ * 
+ *   long t = profiler.start();
+ *   doInput();
+ *   t = profiler.lap(FrameProfiler.INPUT, t);
+ *   doTraffic();
+ *   t = profiler.lap(FrameProfiler.TRAFFIC, t);
+ *   
+ * Histograms are allocated up front, so profiling allocates nothing 
+ * per frame and costs a clock read per phase. A disabled profiler
+ * does not read the clock at all.
+ * 
+ * @author vitaliy
+ *
+ */
+public class FrameProfiler {
+	
+	// Update phases
+	public static final int INPUT      = 0;
+	public static final int HAZARDS    = 1;
+	public static final int FROG       = 2;
+	public static final int AUDIO      = 3;
+	public static final int TRAFFIC    = 4;
+	public static final int COLLISION  = 5;
+	public static final int EFFECTS    = 6;
+	public static final int GOALS      = 7;
+	public static final int UPDATE     = 8;
+	
+	// Render phases
+	public static final int BACKGROUND = 9;
+	public static final int ENTITIES   = 10;
+	public static final int PARTICLES  = 11;
+	public static final int UI         = 12;
+	public static final int RENDER     = 13;
+	
+	static final String [] NAMES = {
+		"input", "hazards", "frog", "audio", "traffic", "collision", 
+		"effects", "goals", "update", 
+		"background", "entities", "particles", "ui", "render"
+	};
+	
+	private final Histogram [] phases = new Histogram[NAMES.length];
+	private boolean enabled = true;
+	
+	public FrameProfiler() {
+		for (int i = 0; i < phases.length; i++)
+			phases[i] = new Histogram();
+	}
+	
+	public void setEnabled(boolean e) {
+		enabled = e;
+	}
+	
+	public boolean isEnabled() {
+		return enabled;
+	}
+	
+	/**
+	 * @return start time of the first phase
+	 */
+	public long start() {
+		return enabled ? System.nanoTime() : 0;
+	}
+	
+	/**
+	 * Record the time since start against phase
+	 * 
+	 * @param phase
+	 * @param start - value of the previous start() or lap()
+	 * @return start time of the next phase
+	 */
+	public long lap(int phase, long start) {
+		if (!enabled)
+			return 0;
+		long now = System.nanoTime();
+		phases[phase].record(now - start);
+		return now;
+	}
+	
+	/**
+	 * Record a phase timed elsewhere, e.g. the total of several laps
+	 * @param phase
+	 * @param ns
+	 */
+	public void record(int phase, long ns) {
+		if (enabled)
+			phases[phase].record(ns);
+	}
+	
+	public Histogram get(int phase) {
+		return phases[phase];
+	}
+	
+	public void reset() {
+		for (int i = 0; i < phases.length; i++)
+			phases[i].reset();
+	}
+	
+	/**
+	 * @return table of p50/p99/max in microseconds, one row per timed phase
+	 */
+	public String report() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%-12s %10s %10s %10s %10s%n", 
+				"phase", "count", "p50 us", "p99 us", "max us"));
+		for (int i = 0; i < phases.length; i++) {
+			Histogram h = phases[i];
+			if (h.getCount() == 0)
+				continue;
+			sb.append(String.format("%-12s %10d %10.1f %10.1f %10.1f%n", NAMES[i], 
+					h.getCount(), h.getPercentile(50) / 1000.0, 
+					h.getPercentile(99) / 1000.0, h.getMax() / 1000.0));
+		}
+		return sb.toString();
+	}
+}
@@ -64,16 +64,28 @@ public class Frogger extends MovingEntity {
     
     public boolean hw_hasMoved = false;
     
-    private Main game;
+    private FroggerWorld game;
+    
+    // What FroggerCollisionDetection tests the traffic's hit shapes against
+    private CollisionObject sphere;
     
     /**
      * Build frogger!
      */
-	public Frogger (Main g) {
+	public Frogger (FroggerWorld g) {
 		super(Main.SPRITE_SHEET + "#frog");
 		game = g;
 		resetFrog();
-		collisionObjects.add(new CollisionObject(position));
+		sphere = new CollisionObject(getPosition());
+	}
+	
+	public CollisionObject getCollisionSphere() {
+		return sphere;
+	}
+	
+	public void sync(double px, double py) {
+		if (sphere != null)
+			sphere.setPosition(px, py);
 	}
 	
 	/**
@@ -84,7 +96,7 @@ public class Frogger extends MovingEntity {
 		isAnimating = false;
 		currentFrame = 0;
 		followObject = null;
-		position = Main.FROGGER_START;
+		setPosition(game.getStartPosition());
 		game.levelTimer = Main.DEFAULT_LEVEL_TIME;
 	}
 	
@@ -92,44 +104,44 @@ public class Frogger extends MovingEntity {
 	 * Moving methods, called from Main upon key strokes
 	 */
 	public void moveLeft() {
-		if (getCenterPosition().getX()-16 > 0 && isAlive && !isAnimating) {
+		if (getCenterX()-16 > 0 && isAlive && !isAnimating) {
 			currentFrame = 3;
 		    move(new Vector2D(-1,0));
-		    AudioEfx.frogJump.play(0.2);
+		    game.audiofx.playFrogJump();
 		}
 	}
 	
 	public void moveRight() {
 		
-		if (getCenterPosition().getX()+32 < Main.WORLD_WIDTH && isAlive && !isAnimating) {
+		if (getCenterX()+32 < Main.WORLD_WIDTH && isAlive && !isAnimating) {
 			currentFrame = 2;
 		    move(new Vector2D(1,0));
-		    AudioEfx.frogJump.play(0.2);
+		    game.audiofx.playFrogJump();
 		}
 	}
 	
 	public void moveUp() {
-		if (position.getY() > 32  && isAlive && !isAnimating) {
+		if (y > 32  && isAlive && !isAnimating) {
 			currentFrame = 0;
 		    move(new Vector2D(0,-1));
-		    AudioEfx.frogJump.play(0.2);
+		    game.audiofx.playFrogJump();
 		}
 	}
 	
 	public void moveDown() {
-		if (position.getY() < Main.WORLD_HEIGHT - MOVE_STEP && isAlive && !isAnimating) {
+		if (y < Main.WORLD_HEIGHT - MOVE_STEP && isAlive && !isAnimating) {
 			currentFrame = 1;
 		    move(new Vector2D(0,1));
-		    AudioEfx.frogJump.play(0.2);
+		    game.audiofx.playFrogJump();
 		}
 	}
 	
 	/**
-	 * Short-cut for systems current time
+	 * Short-cut for the game world's simulation time
 	 * @return
 	 */
 	public long getTime() {
-		return System.currentTimeMillis();
+		return game.getTime();
 	}
 	
 	/**
@@ -154,10 +166,8 @@ public class Frogger extends MovingEntity {
 		currentFrame += 5;
 		
 		// Move CollisionSphere to an already animated location
-		sync(new Vector2D(
-				position.getX()+dirAnimation.getX()*MOVE_STEP, 
-				position.getY()+dirAnimation.getY()*MOVE_STEP)
-		);
+		sync(x + dirAnimation.getX()*MOVE_STEP, 
+			 y + dirAnimation.getY()*MOVE_STEP);
 	}
 	
 	/**
@@ -166,7 +176,7 @@ public class Frogger extends MovingEntity {
 	public void updateAnimation() {
 		// If not animating, sync position of the sprite with its collision sphere
 		if (!isAnimating || !isAlive) {
-			sync(position);
+			sync(x, y);
 			return;
 		}
 		
@@ -180,24 +190,27 @@ public class Frogger extends MovingEntity {
 		// Cycle animation
 		if (animationBeginTime + animationDelay < getTime()) {
 			animationBeginTime = getTime();
-			position = new Vector2D(
-					position.getX() + dirAnimation.getX()*ANIMATION_STEP,
-					position.getY() + dirAnimation.getY()*ANIMATION_STEP
-					);
+			x += dirAnimation.getX()*ANIMATION_STEP;
+			y += dirAnimation.getY()*ANIMATION_STEP;
 			curAnimationFrame++;
 			return;
 		}
 	}
 	
+	/**
+	 * @return true while hopping, moves are ignored until the hop is over
+	 */
+	public boolean isAnimating() {
+		return isAnimating;
+	}
+	
 	/**
 	 * Re-align frog to a grid
 	 */
 	public void allignXPositionToGrid() {
 		if (isAnimating || followObject != null) 
 			return;
-		double x = position.getX();
 		x = Math.round(x/32)*32;
-		position = new Vector2D(x, position.getY());
 		
 	}
 	
@@ -208,8 +221,16 @@ public class Frogger extends MovingEntity {
 	public void updateFollow(long deltaMs) {
 		if (followObject == null || !isAlive) 
 			return;
-		Vector2D dS = followObject.getVelocity().scale(deltaMs);
-		position = new Vector2D(position.getX()+dS.getX(), position.getY()+dS.getY());
+		
+		// Log went out of play and may be recycled anywhere else
+		if (!followObject.isActive()) {
+			followObject = null;
+			return;
+		}
+		
+		Vector2D v = followObject.getVelocity();
+		x += v.getX()*deltaMs;
+		y += v.getY()*deltaMs;
 	}
 	
 	/**
@@ -223,13 +244,13 @@ public class Frogger extends MovingEntity {
 	
 	/**
 	 * Effect of a wind gust on Frogger
-	 * @param d
+	 * @param dx - push along the x-axis
 	 */
-	public void windReposition(Vector2D d) {
+	public void windReposition(double dx) {
 		if (isAlive) {
 			hw_hasMoved = true;
-			setPosition(new Vector2D(getPosition().getX()+d.getX(), getPosition().getY()));
-			sync(position);
+			x += dx;
+			sync(x, y);
 		}
 	}
 	
@@ -261,12 +282,13 @@ public class Frogger extends MovingEntity {
 			return;
 		
 		if (!cheating) {
-		    AudioEfx.frogDie.play(0.2);
+		    game.audiofx.playFrogDie();
 		    followObject = null;
 		    isAlive = false;
 		    currentFrame = 4;	// dead sprite   
 		    game.GameLives--;
 		    hw_hasMoved = true;
+		    game.events.die(game);
 		}
 		
 		timeOfDeath = getTime();
@@ -278,14 +300,15 @@ public class Frogger extends MovingEntity {
 	 */
 	public void reach(final Goal g) {
 		if (g.isReached == false) {
-			AudioEfx.frogGoal.play(0.4);
+			game.audiofx.playFrogGoal();
 			game.GameScore += 100;
 			game.GameScore += game.levelTimer;
 			if (g.isBonus) {
-				AudioEfx.bonus.play(0.2);
+				game.audiofx.playBonus();
 				game.GameLives++;
 			}
 			g.reached();
+			game.events.reach(game, g);
 			resetFrog();
 		}
 		else {
@@ -298,7 +321,7 @@ public class Frogger extends MovingEntity {
 			return;
 		
 		// if dead, stay dead for 2 seconds.
-		if (!isAlive && timeOfDeath + 2000 < System.currentTimeMillis())
+		if (!isAlive && timeOfDeath + 2000 < getTime())
 				resetFrog();
 		
 		updateAnimation();	
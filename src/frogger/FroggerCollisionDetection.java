@@ -26,9 +26,6 @@
 package frogger;
 import java.util.List;
 
-import jig.engine.physics.AbstractBodyLayer;
-import jig.engine.util.Vector2D;
-
 public class FroggerCollisionDetection  {
 
 	public Frogger frog;
@@ -40,38 +37,63 @@ public class FroggerCollisionDetection  {
     public int road_y0 = 8*32;
     public int road_y1 = road_y0 + 5*32;
 	
+    // Rows of the endless mode, null when the bounds above hold
+    public EndlessLanes endless = null;
+    
+    // Widest collision interval in the game, cars and trucks
+    static final double MAX_RADIUS = MovingEntity.WIDE;
+    
+    // Longest collision shape in the game, logs and crocodiles
+    static final double MAX_LENGTH = 4*MovingEntity.STEP_SIZE;
+    
 	public FroggerCollisionDetection (Frogger f) {
 		frog = f;
-		frogSphere = frog.getCollisionObjects().get(0);
+		frogSphere = frog.getCollisionSphere();
 	}
 	
-	public void testCollision(AbstractBodyLayer<MovingEntity> l) {
+	/**
+	 * Test Frogger only against the rows it can reach
+	 * 
+	 * Collision shapes are intervals along the center line of their row.
+	 * Each lane of a row is binary searched for the entities within reach,
+	 * then the few entities moving on their own are tested.
+	 * 
+	 * Rows go top down, traffic lanes before free entities, and the first
+	 * hit wins. Frogger on its row only reaches that row, where nothing 
+	 * overlaps. Midway between two rows, when a gust caught it mid-hop, 
+	 * it can touch both and the upper one wins, a goal over the log below.
+	 * @param lanes
+	 */
+	public void testCollision(LaneIndex lanes) {
 
 		if (!frog.isAlive)
 			return;
 		
-		Vector2D frogPos = frogSphere.getCenterPosition();
-		double dist2;
-		
 		if (isOutOfBounds()) {
 			frog.die();
 			return;
 		}
 		
-		for (MovingEntity i : l) {
-			if (!i.isActive())
-				continue;
+		/* Shapes lie 16 pixels into their row, only rows with center lines
+		 * closer than the sum of two radii can be hit. Frogger's sphere is
+		 * on a center line too, except when a gust caught it mid-hop */
+		double y = frogSphere.getCenterY() - LaneIndex.ROW_HEIGHT/2;
+		double reach = frogSphere.getRadius() + MAX_RADIUS;
+		int firstRow = Math.max(0, (int) Math.ceil((y - reach) / LaneIndex.ROW_HEIGHT));
+		int lastRow = Math.min(lanes.getNumRows() - 1, 
+				(int) Math.floor((y + reach) / LaneIndex.ROW_HEIGHT));
+		
+		for (int r = firstRow; r <= lastRow; r++) {
+			List<TrafficLane> traffic = lanes.getTraffic(r);
+			for (int i = 0; i < traffic.size(); i++) {
+				if (testLane(traffic.get(i)))
+					return;
+			}
 			
-			List<CollisionObject> collisionObjects = i.getCollisionObjects();
-
-			for (CollisionObject objectSphere : collisionObjects) {
-				dist2 = (frogSphere.getRadius() + objectSphere.getRadius()) 
-				      * (frogSphere.getRadius() + objectSphere.getRadius());
-
-				if (frogPos.distance2(objectSphere.getCenterPosition()) < dist2) {
-					collide(i, objectSphere);
+			List<MovingEntity> row = lanes.getFree(r);
+			for (int i = 0; i < row.size(); i++) {
+				if (testEntity(row.get(i)))
 					return;
-				}
 			}
 		}
 		
@@ -79,8 +101,61 @@ public class FroggerCollisionDetection  {
 			frog.die();
 			return;
 		}
+	}
+	
+	/**
+	 * Test Frogger against the entities of a lane that start close enough
+	 * to reach it, or did in the last tick
+	 * @param t
+	 * @return true if it collided
+	 */
+	private boolean testLane(TrafficLane t) {
+		double hi = frogSphere.getCenterX() + frogSphere.getRadius();
+		double lo = hi - 2*frogSphere.getRadius() - MAX_LENGTH;
 		
-		//frog.allignXPositionToGrid();
+		double swept = t.getVelocity() * t.getDeltaMs();
+		if (swept > 0)
+			hi += swept;
+		else
+			lo += swept;
+		
+		int first, last;
+		if (t.getVelocity() > 0) {
+			first = t.countPast(hi);
+			last = t.countPast(lo);
+		} else {
+			first = t.countPast(lo);
+			last = t.countPast(hi);
+		}
+		
+		for (int i = first; i < last; i++) {
+			if (testEntity(t.get(i)))
+				return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Test Frogger against the collision shape of a single entity
+	 * 
+	 * Frogger hops before traffic moves, so it sat where it is for the 
+	 * whole tick. Anything deadly is tested all along the way it went in 
+	 * the tick and can't jump over Frogger with a long deltaMs. What 
+	 * Frogger rides on has to be under it at the end of the tick.
+	 * @param m
+	 * @return true if it collided
+	 */
+	boolean testEntity(MovingEntity m) {
+		if (!m.isActive())
+			return false;
+		
+		boolean swept = m instanceof Truck || m instanceof Car || m instanceof CopCar;
+		int i = m.hit(frogSphere.getCenterX(), frogSphere.getCenterY(), frogSphere.getRadius(), swept);
+		if (i < 0)
+			return false;
+		
+		collide(m, i);
+		return true;
 	}
 	
 	/**
@@ -88,10 +163,11 @@ public class FroggerCollisionDetection  {
 	 * @return
 	 */
 	public boolean isOutOfBounds() {
-		Vector2D frogPos = frogSphere.getCenterPosition();
-		if (frogPos.getY() < 32 || frogPos.getY() > Main.WORLD_HEIGHT)
+		double frogX = frogSphere.getCenterX();
+		double frogY = frogSphere.getCenterY();
+		if (frogY < 32 || frogY > Main.WORLD_HEIGHT)
 			return true;
-		if (frogPos.getX() < 0 || frogPos.getX() > Main.WORLD_WIDTH)
+		if (frogX < 0 || frogX > Main.WORLD_WIDTH)
 			return true;
 		return false;
 	}
@@ -101,35 +177,58 @@ public class FroggerCollisionDetection  {
 	 * @return
 	 */
 	public boolean isInRiver() {
-		Vector2D frogPos = frogSphere.getCenterPosition();
+		double frogY = frogSphere.getCenterY();
+		
+		if (endless != null)
+			return endless.isRiver(LaneIndex.rowOf(frogY));
 
-		if (frogPos.getY() > river_y0 && frogPos.getY() < river_y1)
+		if (frogY > river_y0 && frogY < river_y1)
 			return true;
 
 		return false;
 	}
 	
+	/**
+	 * Same bounds as isInRiver(), for a frog centered on the row
+	 * @param row
+	 * @return true if Frogger drowns on the row unless it rides something
+	 */
+	public boolean isRiver(int row) {
+		if (endless != null)
+			return endless.isRiver(row);
+		
+		double cy = row*LaneIndex.ROW_HEIGHT + LaneIndex.ROW_HEIGHT/2;
+		return cy > river_y0 && cy < river_y1;
+	}
+	
 	/**
 	 * Bound check if the frog is on the road
 	 * @return
 	 */
 	public boolean isOnRoad() {
-		Vector2D frogPos = frogSphere.getCenterPosition();
+		double frogY = frogSphere.getCenterY();
+		
+		if (endless != null)
+			return endless.isRoad(LaneIndex.rowOf(frogY));
 
-		if (frogPos.getY() > road_y0 && frogPos.getY() < road_y1)
+		if (frogY > road_y0 && frogY < road_y1)
 			return true;
 
 		return false;
 	}
 	
-	public void collide(MovingEntity m, CollisionObject s) {
+	/**
+	 * @param m
+	 * @param i - interval of m's collision shape that Frogger hit
+	 */
+	public void collide(MovingEntity m, int i) {
 
 		if (m instanceof Truck || m instanceof Car || m instanceof CopCar) {
 			frog.die();
 		}
 		
 		if (m instanceof Crocodile) {
-			if (s == ((Crocodile) m).head)
+			if (i == ((Crocodile) m).head)
 				frog.die();
 			else
 				frog.follow(m);
@@ -36,7 +36,20 @@ import jig.engine.RenderingContext;
 import jig.engine.ResourceFactory;
 import jig.engine.ViewableLayer;
 
+/**
+ * Heads-up display and the full screen menus
+ * 
+ * Time, score and level are drawn from a GlyphAtlas. A counter lays out 
+ * its digits again only when its value changes, so a frame of HUD is a 
+ * handful of blits with reused transforms.
+ * 
+ * @author vitaliy
+ *
+ */
 public class FroggerUI implements ViewableLayer {
+	
+	static final String DIGITS = "0123456789";
+	
 	List<ImageResource> heart = ResourceFactory.getFactory().getFrames(
 			Main.SPRITE_SHEET + "#heart");
 	List<ImageResource> gameOver = ResourceFactory.getFactory().getFrames(
@@ -54,20 +67,37 @@ public class FroggerUI implements ViewableLayer {
 	FontResource fontBlack = ResourceFactory.getFactory().getFontResource(
 			new Font("Sans Serif", Font.BOLD, 14), Color.black, null );
 	
-	Main game;
+	FroggerWorld game;
+	
+	private GlyphAtlas glyphs;
+	private Counter time;
+	private Counter score;
+	private Counter level;
 	
-	public FroggerUI(final Main g) {
+	// Reused for every blit
+	private final AffineTransform at = new AffineTransform();
+	
+	public FroggerUI(final FroggerWorld g) {
 		game = g;
+		
+		String [] text = new String[DIGITS.length() + 3];
+		for (int i = 0; i < DIGITS.length(); i++)
+			text[i] = DIGITS.substring(i, i + 1);
+		text[DIGITS.length()]     = "Time: ";
+		text[DIGITS.length() + 1] = "Score: ";
+		text[DIGITS.length() + 2] = "L";
+		glyphs = new GlyphAtlas("frogger#hud_glyphs", font, text);
+		
+		time  = new Counter(glyphs, glyphs.indexOf("Time: "), 180, 7);
+		score = new Counter(glyphs, glyphs.indexOf("Score: "), 310, 7);
+		level = new Counter(glyphs, glyphs.indexOf("L"), 270, 7);
 	}
 	
 	
 	public void render(RenderingContext rc) {
 		
-		font.render("Time: " + game.levelTimer, rc, 
-				AffineTransform.getTranslateInstance(180, 7));
-		
-		font.render("Score: " + game.GameScore, rc, 
-				AffineTransform.getTranslateInstance(310, 7));
+		time.render(rc, game.levelTimer, at);
+		score.render(rc, game.GameScore, at);
 		
 		if (game.GameLives > 0) {
 			int dx = 0;
@@ -80,42 +110,38 @@ public class FroggerUI implements ViewableLayer {
 				maxHearts = game.GameLives;
 			
 			for (int i = 0; i < maxHearts; i++ ) {
-				heart.get(0).render(rc, 
-						AffineTransform.getTranslateInstance(dx+8, 8));
+				at.setToTranslation(dx+8, 8);
+				heart.get(0).render(rc, at);
 				dx = 16 * (i + 1);
 			}
 		}
 
-		font.render("L" + game.GameLevel, rc, 
-				AffineTransform.getTranslateInstance(270, 7));
+		level.render(rc, game.GameLevel, at);
 		
 		if (game.GameState == Main.GAME_INTRO) {
-			   introTitle.get(0).render(rc, 
-						AffineTransform.getTranslateInstance(
-								(Main.WORLD_WIDTH - introTitle.get(0).getWidth())/2, 150));
+			   renderCentered(rc, introTitle.get(0), 150);
 			   return;
 		}
 		
 		if (game.GameState == Main.GAME_INSTRUCTIONS) {
-			   instructions.get(0).render(rc, 
-						AffineTransform.getTranslateInstance(
-								(Main.WORLD_WIDTH - instructions.get(0).getWidth())/2, 100));
+			   renderCentered(rc, instructions.get(0), 100);
 			   return;			
 		}
 		
 		if (game.GameState == Main.GAME_OVER) {
-		   gameOver.get(0).render(rc, 
-					AffineTransform.getTranslateInstance(
-							(Main.WORLD_WIDTH - gameOver.get(0).getWidth())/2, 150));
+		   renderCentered(rc, gameOver.get(0), 150);
 		   return;
 		}
 		
 		if (game.GameState == Main.GAME_FINISH_LEVEL) {
-			 levelFinish.get(0).render(rc, 
-						AffineTransform.getTranslateInstance(
-								(Main.WORLD_WIDTH - levelFinish.get(0).getWidth())/2, 150));		 
+			 renderCentered(rc, levelFinish.get(0), 150);
 		}
 	}
+	
+	private void renderCentered(RenderingContext rc, ImageResource img, int y) {
+		at.setToTranslation((Main.WORLD_WIDTH - img.getWidth())/2, y);
+		img.render(rc, at);
+	}
 
 	public void update(long deltaMs) {
 	}
@@ -128,4 +154,66 @@ public class FroggerUI implements ViewableLayer {
 		// can't turn this layer off!
 	}
 	
-}
\ No newline at end of file
+	/**
+	 * Label followed by a non-negative number, like "Score: 1200"
+	 */
+	static class Counter {
+		// Enough digits for any int
+		static final int MAX_DIGITS = 10;
+		
+		private final GlyphAtlas glyphs;
+		private final int label;
+		private final int x;
+		private final int y;
+		
+		// Glyph and x position of every digit of the current value
+		private final int [] digit = new int[MAX_DIGITS];
+		private final int [] digitX = new int[MAX_DIGITS];
+		private int n = 0;
+		private int value = -1;
+		
+		Counter(GlyphAtlas g, int labelGlyph, int px, int py) {
+			glyphs = g;
+			label = labelGlyph;
+			x = px;
+			y = py;
+		}
+		
+		void render(RenderingContext rc, int v, AffineTransform at) {
+			if (v < 0)
+				v = 0;
+			if (v != value)
+				layout(v);
+			
+			at.setToTranslation(x, y);
+			glyphs.get(label).render(rc, at);
+			for (int i = 0; i < n; i++) {
+				at.setToTranslation(digitX[i], y);
+				glyphs.get(digit[i]).render(rc, at);
+			}
+		}
+		
+		private void layout(int v) {
+			value = v;
+			
+			// Digits come out least significant first
+			n = 0;
+			do {
+				digit[n++] = v % 10;
+				v /= 10;
+			} while (v > 0);
+			
+			for (int i = 0, j = n - 1; i < j; i++, j--) {
+				int t = digit[i];
+				digit[i] = digit[j];
+				digit[j] = t;
+			}
+			
+			int dx = x + glyphs.getWidth(label);
+			for (int i = 0; i < n; i++) {
+				digitX[i] = dx;
+				dx += glyphs.getWidth(digit[i]);
+			}
+		}
+	}
+}
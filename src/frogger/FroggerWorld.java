@@ -0,0 +1,591 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.awt.event.KeyEvent;
+
+import jig.engine.Keyboard;
+import jig.engine.util.Vector2D;
+
+/**
+ * Game logic of Frogger without any window, rendering or resource loading
+ * 
+ * Main drives it from the jig game loop, HeadlessMain drives it from a
+ * programmatic clock. Both go through the same update path.
+ * 
+ * @author vitaliy
+ *
+ */
+public class FroggerWorld {
+	
+	protected FroggerCollisionDetection frogCol;
+	protected Frogger frog;
+	protected AudioEfx audiofx;
+	protected WindGust wind;
+	protected HeatWave hwave;
+	protected GoalManager goalmanager;
+	
+	protected MovingEntityLayer movingObjectsLayer;
+	protected ParticleSystem particles;
+	
+	// Per phase frame times of update() and Main.render()
+	protected FrameProfiler profiler = new FrameProfiler();
+	
+	// Ticks, spawns, deaths, etc. for Java Flight Recorder, see GameEvents
+	protected GameEvents events = GameEvents.load();
+	
+	// movingObjectsLayer entities by row, for collision detection
+	protected LaneIndex lanes;
+	
+	// Cars, logs, etc. that went out of play, shared by all lanes
+	protected MovingEntityPool pool;
+	
+	// Traffic lanes, the factory building each lane's entities and the lane moving them
+	protected LaneConfig laneConfig;
+	private MovingEntityFactory [] factories;
+	private TrafficLane [] traffic;
+	
+	// Traffic at level start looks like after this much time in cycleTraffic(WARMUP_STEP_MS)
+	static final long WARMUP_MS = 5000;
+	static final long WARMUP_STEP_MS = 10;
+	
+	// Entities emitted so far by each lane of laneConfig
+	private long [] laneSpawns;
+	
+	// Procedural lanes instead of laneConfig, null in the classic game
+	protected EndlessLanes endless = null;
+	
+	protected int GameState = Main.GAME_INTRO;
+	protected int GameLevel = Main.STARTING_LEVEL;
+	
+    public int GameLives    = Main.FROGGER_LIVES;
+    public int GameScore    = 0;
+    
+    public int levelTimer = Main.DEFAULT_LEVEL_TIME;
+    
+    // Simulation time, advanced only by update()
+    private long timeMs = 0;
+    
+    // Number of update() calls and the thread making them, read by GameMetrics
+    private volatile long ticks = 0;
+    private volatile Thread thread;
+    
+    // Every random decision of the game is drawn from here, see GameRandom
+    private long seed;
+    private GameRandom random;
+    
+    private Keyboard keyboard;
+    
+    private boolean space_has_been_released = false;
+	private boolean keyPressed = false;
+	private boolean listenInput = true;
+	
+	/**
+	 * Build the game world
+	 * 
+	 * @param k - keyboard polled by the input handlers
+	 * @param sound - false to build a silent world that loads no audio clips
+	 */
+	public FroggerWorld(Keyboard k, boolean sound) {
+		this(k, sound, System.currentTimeMillis());
+	}
+	
+	/**
+	 * Build a reproducible game world, the same seed and the same key presses
+	 * at the same ticks play out the same game
+	 * 
+	 * @param k - keyboard polled by the input handlers
+	 * @param sound - false to build a silent world that loads no audio clips
+	 * @param s - random seed
+	 */
+	public FroggerWorld(Keyboard k, boolean sound, long s) {
+		this(k, sound, s, LaneConfig.getDefault());
+	}
+	
+	/**
+	 * @param k - keyboard polled by the input handlers
+	 * @param sound - false to build a silent world that loads no audio clips
+	 * @param s - random seed
+	 * @param lc - traffic lanes
+	 */
+	public FroggerWorld(Keyboard k, boolean sound, long s, LaneConfig lc) {
+		keyboard = k;
+		seed = s;
+		random = new GameRandom(seed);
+		
+		frog = new Frogger(this);
+		frogCol = new FroggerCollisionDetection(frog);
+		audiofx = new AudioEfx(frogCol, frog, sound, random.split());
+		wind = new WindGust(audiofx, random.split());
+		hwave = new HeatWave(audiofx, random.split());
+		goalmanager = new GoalManager(random.split());
+		
+		movingObjectsLayer = new MovingEntityLayer();
+		particles = new ParticleSystem();
+		lanes = new LaneIndex(Main.WORLD_HEIGHT / LaneIndex.ROW_HEIGHT);
+		pool = new MovingEntityPool();
+		
+		laneConfig = lc;
+		factories = new MovingEntityFactory[lc.size()];
+		traffic = new TrafficLane[lc.size()];
+		laneSpawns = new long[lc.size()];
+		
+		initializeLevel(1);
+	}
+	
+	/**
+	 * Swap the keyboard polled by the input handlers, e.g. for recording or replay
+	 * @param k
+	 */
+	public void setKeyboard(Keyboard k) {
+		keyboard = k;
+	}
+	
+	public Keyboard getKeyboard() {
+		return keyboard;
+	}
+	
+	public FrameProfiler getProfiler() {
+		return profiler;
+	}
+	
+	public long getSeed() {
+		return seed;
+	}
+	
+	/**
+	 * Current simulation time in milliseconds
+	 * @return
+	 */
+	public long getTime() {
+		return timeMs;
+	}
+	
+	public void initializeLevel(int level) {
+		
+		events.beginLevelLoad();
+		frog.follow(null);
+		lanes.clear();
+		movingObjectsLayer.clear(pool);
+		
+		/* No goals in endless mode, just lanes all the way up */
+		if (endless != null) {
+			endless.reset(level);
+			events.endLevelLoad(this, level);
+			return;
+		}
+		
+		/* Lanes speed up with every level */
+		for (int i = 0; i < factories.length; i++) {
+			LaneConfig.Lane l = laneConfig.get(i);
+			factories[i] = new MovingEntityFactory(l.getStart(), l.getVelocity(level), 
+					pool, random.split());
+			traffic[i] = new TrafficLane(factories[i].velocity.getX());
+			lanes.addTraffic(traffic[i], l.row);
+		}
+		
+		goalmanager.init(level);
+		for (Goal g : goalmanager.get()) {
+			addMovingEntity(g);
+		}
+			
+		/* Build some traffic before game starts, as if the level had been running for a while */
+		prePopulate(WARMUP_MS, WARMUP_STEP_MS);
+		
+		events.endLevelLoad(this, level);
+	}
+	
+	/**
+	 * @return number of update() calls so far
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+	
+	/**
+	 * @return thread running update(), null before the first tick
+	 */
+	public Thread getThread() {
+		return thread;
+	}
+	
+	public LaneConfig getLaneConfig() {
+		return laneConfig;
+	}
+	
+	/**
+	 * Switch between the classic game and endless mode, see EndlessLanes,
+	 * the current level starts over
+	 * @param e
+	 */
+	public void setEndless(boolean e) {
+		if (e && endless == null)
+			endless = new EndlessLanes(this, random.split());
+		else if (!e)
+			endless = null;
+		frogCol.endless = endless;
+		initializeLevel(GameLevel);
+	}
+	
+	/**
+	 * @return lanes of endless mode, null in the classic game
+	 */
+	public EndlessLanes getEndless() {
+		return endless;
+	}
+	
+	/**
+	 * @return where Frogger starts and comes back after dying
+	 */
+	public Vector2D getStartPosition() {
+		if (endless == null)
+			return Main.FROGGER_START;
+		return new Vector2D(Main.FROGGER_START.getX(), endless.getStartRow() * LaneIndex.ROW_HEIGHT);
+	}
+	
+	/**
+	 * @param lane - index into laneConfig
+	 * @return number of entities the lane emitted so far
+	 */
+	public long getLaneSpawns(int lane) {
+		return laneSpawns[lane];
+	}
+	
+	/**
+	 * Start a new game from the first level
+	 */
+	public void newGame() {
+		GameLives = Main.FROGGER_LIVES;
+		GameScore = 0;
+		GameLevel = Main.STARTING_LEVEL;
+		levelTimer = Main.DEFAULT_LEVEL_TIME;
+		GameState = Main.GAME_PLAY;
+		audiofx.playGameMusic();
+		initializeLevel(GameLevel);
+		frog.setPosition(getStartPosition());
+	}
+	
+	/**
+	 * Add entity to movingObjectsLayer and file it in the lane index
+	 * @param m
+	 */
+	public void addMovingEntity(MovingEntity m) {
+		movingObjectsLayer.add(m);
+		lanes.add(m);
+	}
+	
+	/**
+	 * Add an entity built by a lane's factory, if any
+	 * @param lane - index into laneConfig, -1 for lanes not in laneConfig
+	 * @param l - the lane
+	 * @param t - moves the lane's entities
+	 * @param m - may be null
+	 */
+	void spawn(int lane, LaneConfig.Lane l, TrafficLane t, MovingEntity m) {
+		if (m != null) {
+			t.add(m);
+			addMovingEntity(m);
+			if (lane >= 0)
+				laneSpawns[lane]++;
+			events.spawn(l.name, m);
+		}
+	}
+	
+	/**
+	 * Advance a lane's factory and let it build the next entity
+	 * 
+	 * @param l - the lane
+	 * @param f - the lane's factory
+	 * @param deltaMs
+	 * @return new entity or null
+	 */
+	static MovingEntity build(LaneConfig.Lane l, MovingEntityFactory f, long deltaMs) {
+		f.update(deltaMs);
+		
+		switch (l.mix) {
+		case LaneConfig.VEHICLES:   return f.buildVehicle(l.chance, l.alt);
+		case LaneConfig.TURTLES:    return f.buildShortLogWithTurtles(l.chance, l.alt);
+		case LaneConfig.CROCODILES: return f.buildLongLogWithCrocodile(l.chance, l.alt);
+		default: return null;
+		}
+	}
+	
+	/**
+	 * Lay out the traffic of every lane as cycleTraffic(stepMs) would
+	 * have after ms of play, without moving anything until then
+	 * 
+	 * Factories take the same steps and make the same random draws, each
+	 * entity then jumps to where it would be by the end. Entities that would
+	 * have left the world already go straight back to the pool.
+	 * 
+	 * @param ms
+	 * @param stepMs
+	 */
+	private void prePopulate(long ms, long stepMs) {
+		for (int lane = 0; lane < factories.length; lane++)
+			prePopulate(lane, laneConfig.get(lane), factories[lane], traffic[lane], ms, stepMs);
+	}
+	
+	/**
+	 * Lay out the traffic of a single lane, see prePopulate(long, long)
+	 * 
+	 * @param lane - index into laneConfig, -1 for lanes not in laneConfig
+	 * @param l - the lane
+	 * @param f - the lane's factory
+	 * @param lt - moves the lane's entities
+	 * @param ms
+	 * @param stepMs
+	 */
+	void prePopulate(int lane, LaneConfig.Lane l, MovingEntityFactory f, TrafficLane lt, 
+			long ms, long stepMs) {
+		for (long t = 0; t < ms; t += stepMs) {
+			MovingEntity m = build(l, f, stepMs);
+			if (m == null)
+				continue;
+			
+			m.advance(ms - t, stepMs);
+			if (m.isActive())
+				spawn(lane, l, lt, m);
+			else
+				pool.release(m);
+		}
+	}
+	
+	/**
+	 * Populate movingObjectLayer with a cycle of cars/trucks, moving tree logs, etc
+	 * 
+	 * @param deltaMs
+	 */
+	public void cycleTraffic(long deltaMs) {
+		int dropped = 0;
+		if (endless != null) {
+			dropped = endless.cycle(deltaMs);
+		} else {
+			for (int lane = 0; lane < factories.length; lane++) {
+				LaneConfig.Lane l = laneConfig.get(lane);
+				spawn(lane, l, traffic[lane], build(l, factories[lane], deltaMs));
+				dropped += traffic[lane].update(deltaMs);
+			}
+		}
+	    
+	    // Do Wind
+	    wind.genParticles(GameLevel, particles);
+	    
+	    // HeatWave
+	    hwave.genParticles(frog, particles);
+	        
+	    movingObjectsLayer.update(deltaMs);
+	    particles.update(deltaMs);
+	    
+	    // Entities out of play are dropped and handed back to the lanes for recycling
+	    if (dropped > 0 || movingObjectsLayer.hasDropped()) {
+	    	lanes.removeInactive();
+	    	movingObjectsLayer.removeInactive(pool);
+	    }
+	}
+	
+	/**
+	 * Handling Frogger movement from keyboard input
+	 */
+	public void froggerKeyboardHandler() {
+ 		keyboard.poll();
+		
+ 		boolean keyReleased = false;
+        boolean downPressed = keyboard.isPressed(KeyEvent.VK_DOWN);
+        boolean upPressed = keyboard.isPressed(KeyEvent.VK_UP);
+		boolean leftPressed = keyboard.isPressed(KeyEvent.VK_LEFT);
+		boolean rightPressed = keyboard.isPressed(KeyEvent.VK_RIGHT);
+		
+		// Enable/Disable cheating
+		if (keyboard.isPressed(KeyEvent.VK_C))
+			frog.cheating = true;
+		if (keyboard.isPressed(KeyEvent.VK_V))
+			frog.cheating = false;
+		if (keyboard.isPressed(KeyEvent.VK_0)) {
+			GameLevel = 10;
+			initializeLevel(GameLevel);
+		}
+		
+		
+		/*
+		 * This logic checks for key strokes.
+		 * It registers a key press, and ignores all other key strokes
+		 * until the first key has been released
+		 */
+		if (downPressed || upPressed || leftPressed || rightPressed)
+			keyPressed = true;
+		else if (keyPressed)
+			keyReleased = true;
+		
+		if (listenInput) {
+		    if (downPressed) frog.moveDown();
+		    if (upPressed) frog.moveUp();
+		    if (leftPressed) frog.moveLeft();
+	 	    if (rightPressed) frog.moveRight();
+	 	    
+	 	    if (keyPressed)
+	            listenInput = false;
+		}
+		
+		if (keyReleased) {
+			listenInput = true;
+			keyPressed = false;
+		}
+		
+		if (keyboard.isPressed(KeyEvent.VK_ESCAPE))
+			GameState = Main.GAME_INTRO;
+	}
+	
+	/**
+	 * Handle keyboard events while at the game intro menu
+	 */
+	public void menuKeyboardHandler() {
+		keyboard.poll();
+		
+		// Following 2 if statements allow capture space bar key strokes
+		if (!keyboard.isPressed(KeyEvent.VK_SPACE)) {
+			space_has_been_released = true;
+		}
+		
+		if (!space_has_been_released)
+			return;
+		
+		if (keyboard.isPressed(KeyEvent.VK_SPACE)) {
+			switch (GameState) {
+			case Main.GAME_INSTRUCTIONS:
+			case Main.GAME_OVER:
+				GameState = Main.GAME_INTRO;
+				space_has_been_released = false;
+				break;
+			default:
+				newGame();
+			}
+		}
+		if (keyboard.isPressed(KeyEvent.VK_H))
+			GameState = Main.GAME_INSTRUCTIONS;
+	}
+	
+	/**
+	 * Handle keyboard when finished a level
+	 */
+	public void finishLevelKeyboardHandler() {
+		keyboard.poll();
+		if (keyboard.isPressed(KeyEvent.VK_SPACE)) {
+			GameState = Main.GAME_PLAY;
+			audiofx.playGameMusic();
+			initializeLevel(++GameLevel);
+		}
+	}
+	
+	
+	/**
+	 * w00t
+	 */
+	public void update(long deltaMs) {
+		timeMs += deltaMs;
+		ticks++;
+		if (thread != Thread.currentThread())
+			thread = Thread.currentThread();
+		
+		events.beginTick();
+		long t0 = profiler.start();
+		long t = t0;
+		
+		switch(GameState) {
+		case Main.GAME_PLAY:
+			froggerKeyboardHandler();
+			t = profiler.lap(FrameProfiler.INPUT, t);
+			wind.update(deltaMs);
+			hwave.update(deltaMs);
+			t = profiler.lap(FrameProfiler.HAZARDS, t);
+			frog.update(deltaMs);
+			t = profiler.lap(FrameProfiler.FROG, t);
+			audiofx.update(deltaMs);
+			t = profiler.lap(FrameProfiler.AUDIO, t);
+
+			cycleTraffic(deltaMs);
+			t = profiler.lap(FrameProfiler.TRAFFIC, t);
+			frogCol.testCollision(lanes);
+			t = profiler.lap(FrameProfiler.COLLISION, t);
+			
+			// Every row climbed in endless mode scores and refills the timer
+			if (endless != null && endless.scroll()) {
+				GameScore += 10;
+				levelTimer = Main.DEFAULT_LEVEL_TIME;
+				GameLevel = endless.getLevel();
+			}
+			
+			// Wind gusts work only when Frogger is on the river
+			if (frogCol.isInRiver())
+				wind.start(GameLevel);		
+			wind.perform(frog, GameLevel, deltaMs);
+			
+			// Do the heat wave only when Frogger is on hot pavement
+			if (frogCol.isOnRoad())
+				hwave.start(frog, GameLevel);
+			hwave.perform(frog, deltaMs, GameLevel);
+			
+	
+			if (!frog.isAlive)
+				particles.clear();
+			t = profiler.lap(FrameProfiler.EFFECTS, t);
+			
+			goalmanager.update(deltaMs);
+			
+			if (endless == null && goalmanager.getUnreachedCount() == 0) {
+				GameState = Main.GAME_FINISH_LEVEL;
+				audiofx.playCompleteLevel();
+				particles.clear();
+			}
+			
+			if (GameLives < 1) {
+				GameState = Main.GAME_OVER;
+			}
+			profiler.lap(FrameProfiler.GOALS, t);
+			
+			break;
+		
+		case Main.GAME_OVER:		
+		case Main.GAME_INSTRUCTIONS:
+		case Main.GAME_INTRO:
+			goalmanager.update(deltaMs);
+			t = profiler.lap(FrameProfiler.GOALS, t);
+			menuKeyboardHandler();
+			t = profiler.lap(FrameProfiler.INPUT, t);
+			cycleTraffic(deltaMs);
+			profiler.lap(FrameProfiler.TRAFFIC, t);
+			break;
+			
+		case Main.GAME_FINISH_LEVEL:
+			finishLevelKeyboardHandler();
+			profiler.lap(FrameProfiler.INPUT, t);
+			break;		
+		}
+		
+		profiler.lap(FrameProfiler.UPDATE, t0);
+		events.endTick(this, deltaMs);
+	}
+}
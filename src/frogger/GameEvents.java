@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+/**
+ * Hooks for recording game events, such as ticks, spawns and deaths, with
+ * an external profiler
+ * 
+ * This class does nothing. On Java 11 and newer, with the jfr/ build on the
+ * class path, load() returns JfrGameEvents instead, which emits them as Java
+ * Flight Recorder events. Those cost an enabled check when JFR isn't recording.
+ * 
+ * @author vitaliy
+ *
+ */
+public class GameEvents {
+	
+	static final String JFR_EVENTS = "frogger.JfrGameEvents";
+	
+	static final GameEvents NONE = new GameEvents();
+	
+	// JfrGameEvents if it could be loaded, NONE's class otherwise
+	private static Class<?> loaded = null;
+	
+	/**
+	 * Timed events keep their open begin in the instance, so every world
+	 * needs an instance of its own. The class is looked up once.
+	 * 
+	 * @return JFR events if available, otherwise hooks that do nothing
+	 */
+	@SuppressWarnings("deprecation")
+	public static GameEvents load() {
+		Class<?> c = lookup();
+		if (c == GameEvents.class)
+			return NONE;
+		try {
+			return (GameEvents) c.newInstance();
+		} catch (Exception e) {
+			return NONE;
+		}
+	}
+	
+	@SuppressWarnings("deprecation")
+	private static synchronized Class<?> lookup() {
+		if (loaded == null) {
+			try {
+				// an instance up front, so any failure happens once, right here
+				Class<?> c = Class.forName(JFR_EVENTS);
+				c.newInstance();
+				loaded = c;
+			} catch (Exception e) {
+				loaded = GameEvents.class;
+			} catch (LinkageError e) {
+				// jfr/ build on an older Java
+				loaded = GameEvents.class;
+			}
+		}
+		return loaded;
+	}
+	
+	/**
+	 * A game loop iteration starts, always followed by endTick()
+	 */
+	public void beginTick() {
+	}
+	
+	/**
+	 * @param w - world that has just been updated
+	 * @param deltaMs
+	 */
+	public void endTick(FroggerWorld w, long deltaMs) {
+	}
+	
+	/**
+	 * A lane's MovingEntityFactory emitted an entity
+	 * 
+	 * @param lane - name of the lane
+	 * @param m
+	 */
+	public void spawn(String lane, MovingEntity m) {
+	}
+	
+	/**
+	 * Frogger lost a life
+	 * 
+	 * @param w
+	 */
+	public void die(FroggerWorld w) {
+	}
+	
+	/**
+	 * Frogger reached a goal
+	 * 
+	 * @param w
+	 * @param g
+	 */
+	public void reach(FroggerWorld w, Goal g) {
+	}
+	
+	/**
+	 * Level building starts, always followed by endLevelLoad()
+	 */
+	public void beginLevelLoad() {
+	}
+	
+	/**
+	 * @param w - world with the level built and traffic warmed up
+	 * @param level
+	 */
+	public void endLevelLoad(FroggerWorld w, int level) {
+	}
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Publishes live metrics of a FroggerWorld on the platform MBean server
+ * 
+ * Watch it with jconsole or any other JMX client under frogger:type=GameMetrics.
+ * 
+ * Nothing here runs on the game thread. Attributes are read from the JMX 
+ * thread as plain field reads, so counts may be a tick stale. Rates are 
+ * computed from the difference between two samples at least a second apart.
+ * 
+ * @author vitaliy
+ *
+ */
+public class GameMetrics implements GameMetricsMXBean {
+	
+	static final String OBJECT_NAME = "frogger:type=GameMetrics";
+	static final long SAMPLE_NS = 1000000000L;
+	
+	static final String [] STATE_NAMES = {
+		"GAME_INTRO", "GAME_PLAY", "GAME_FINISH_LEVEL", "GAME_INSTRUCTIONS", "GAME_OVER"
+	};
+	
+	private final FroggerWorld world;
+	private final com.sun.management.ThreadMXBean threads;
+	
+	// Last sample and the rates it produced
+	private long sampleNs = 0;
+	private long sampleTicks = 0;
+	private long sampleBytes = 0;
+	private double ticksPerSecond = 0;
+	private double bytesPerTick = -1;
+	
+	public GameMetrics(FroggerWorld w) {
+		world = w;
+		
+		// Per-thread allocation counters are a HotSpot extension
+		ThreadMXBean t = ManagementFactory.getThreadMXBean();
+		if (t instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean) t).isThreadAllocatedMemorySupported())
+			threads = (com.sun.management.ThreadMXBean) t;
+		else
+			threads = null;
+	}
+	
+	/**
+	 * Register metrics of a world on the platform MBean server
+	 * 
+	 * @param w
+	 * @return registered metrics
+	 * @throws JMException - e.g. another world is registered already
+	 */
+	public static GameMetrics register(FroggerWorld w) throws JMException {
+		GameMetrics m = new GameMetrics(w);
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		server.registerMBean(m, new ObjectName(OBJECT_NAME));
+		return m;
+	}
+	
+	public String getGameState() {
+		int s = world.GameState;
+		return s >= 0 && s < STATE_NAMES.length ? STATE_NAMES[s] : String.valueOf(s);
+	}
+	
+	public int getGameLevel() {
+		return world.GameLevel;
+	}
+	
+	public long getTicks() {
+		return world.getTicks();
+	}
+	
+	public synchronized double getTicksPerSecond() {
+		sample();
+		return ticksPerSecond;
+	}
+	
+	public synchronized double getAllocatedBytesPerTick() {
+		sample();
+		return bytesPerTick;
+	}
+	
+	public int getMovingEntityCount() {
+		return world.movingObjectsLayer.size();
+	}
+	
+	public int getParticleCount() {
+		return world.particles.size();
+	}
+	
+	public int getIdleEntityCount() {
+		return world.pool.getIdle();
+	}
+	
+	public double getActiveRatio() {
+		int active = getMovingEntityCount();
+		int total = active + getIdleEntityCount();
+		return total == 0 ? 0 : (double) active / total;
+	}
+	
+	public Map<String, Long> getLaneSpawns() {
+		Map<String, Long> m = new LinkedHashMap<String, Long>();
+		LaneConfig lc = world.getLaneConfig();
+		for (int i = 0; i < lc.size(); i++)
+			m.put(lc.get(i).name, world.getLaneSpawns(i));
+		return m;
+	}
+	
+	/**
+	 * Take a new sample when the last one is older than SAMPLE_NS
+	 */
+	private void sample() {
+		long now = System.nanoTime();
+		if (sampleNs != 0 && now - sampleNs < SAMPLE_NS)
+			return;
+		
+		long ticks = world.getTicks();
+		long bytes = allocatedBytes();
+		
+		if (sampleNs != 0) {
+			long dt = ticks - sampleTicks;
+			ticksPerSecond = dt * 1e9 / (now - sampleNs);
+			if (bytes < 0 || sampleBytes < 0)
+				bytesPerTick = -1;
+			else
+				bytesPerTick = dt == 0 ? 0 : (double) (bytes - sampleBytes) / dt;
+		}
+		
+		sampleNs = now;
+		sampleTicks = ticks;
+		sampleBytes = bytes;
+	}
+	
+	/**
+	 * @return bytes allocated so far by the game thread, -1 if unknown
+	 */
+	private long allocatedBytes() {
+		Thread t = world.getThread();
+		if (threads == null || t == null)
+			return -1;
+		return threads.getThreadAllocatedBytes(t.getId());
+	}
+}
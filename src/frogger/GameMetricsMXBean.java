@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.util.Map;
+
+/**
+ * Live game engine metrics, see GameMetrics
+ * 
+ * @author vitaliy
+ *
+ */
+public interface GameMetricsMXBean {
+	
+	/**
+	 * @return GAME_INTRO, GAME_PLAY, GAME_FINISH_LEVEL, GAME_INSTRUCTIONS or GAME_OVER
+	 */
+	public String getGameState();
+	
+	public int getGameLevel();
+	
+	public long getTicks();
+	
+	/**
+	 * @return game loop iterations per second, over the last sampling window
+	 */
+	public double getTicksPerSecond();
+	
+	/**
+	 * @return bytes allocated by the game thread per tick over the last 
+	 * sampling window, -1 when the JVM can't tell
+	 */
+	public double getAllocatedBytesPerTick();
+	
+	/**
+	 * @return cars, logs, etc. in movingObjectsLayer
+	 */
+	public int getMovingEntityCount();
+	
+	public int getParticleCount();
+	
+	/**
+	 * @return entities waiting in the pool to be recycled
+	 */
+	public int getIdleEntityCount();
+	
+	/**
+	 * @return active entities over active plus idle ones
+	 */
+	public double getActiveRatio();
+	
+	/**
+	 * @return entities emitted by each lane's MovingEntityFactory
+	 */
+	public Map<String, Long> getLaneSpawns();
+}
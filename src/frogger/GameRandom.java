@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+/**
+ * Seedable random number generator for the game simulation
+ * 
+ * Same algorithm as SplitMix64 (java.util.SplittableRandom), kept here
+ * because the game still runs on Java 7. Not thread safe and not
+ * synchronized: every subsystem gets its own instance through split(),
+ * so the numbers one subsystem draws never shift another one's sequence.
+ * 
+ * @author vitaliy
+ *
+ */
+public class GameRandom {
+	
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+	private static final double DOUBLE_UNIT = 0x1.0p-53;
+	
+	private long seed;
+	private final long gamma;
+	
+	public GameRandom(long s) {
+		this(s, GOLDEN_GAMMA);
+	}
+	
+	private GameRandom(long s, long g) {
+		seed = s;
+		gamma = g;
+	}
+	
+	/**
+	 * New generator for a subsystem, its sequence is fully determined by
+	 * the state of this generator
+	 */
+	public GameRandom split() {
+		return new GameRandom(nextLong(), mixGamma(nextSeed()));
+	}
+	
+	public long nextLong() {
+		return mix64(nextSeed());
+	}
+	
+	public int nextInt() {
+		return mix32(nextSeed());
+	}
+	
+	/**
+	 * @param bound - must be positive
+	 * @return uniform value in [0, bound)
+	 */
+	public int nextInt(int bound) {
+		if (bound <= 0)
+			throw new IllegalArgumentException("bound must be positive");
+		
+		int r = mix32(nextSeed());
+		int m = bound - 1;
+		if ((bound & m) == 0) {
+			r &= m;
+		} else {
+			// reject the values that would bias the result
+			for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = mix32(nextSeed()) >>> 1)
+				;
+		}
+		return r;
+	}
+	
+	/**
+	 * @return uniform value in [0, 1)
+	 */
+	public double nextDouble() {
+		return (nextLong() >>> 11) * DOUBLE_UNIT;
+	}
+	
+	public boolean nextBoolean() {
+		return mix32(nextSeed()) < 0;
+	}
+	
+	private long nextSeed() {
+		return seed += gamma;
+	}
+	
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+	
+	private static int mix32(long z) {
+		z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+		return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+	}
+	
+	private static long mixGamma(long z) {
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		z = (z ^ (z >>> 33)) | 1L;
+		int n = Long.bitCount(z ^ (z >>> 1));
+		return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+	}
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import jig.engine.FontResource;
+import jig.engine.ImageResource;
+import jig.engine.ResourceFactory;
+
+/**
+ * Text pre-rendered into images, one frame per glyph
+ * 
+ * A glyph may be a single character, like a digit, or a whole label such
+ * as "Score: ". Glyphs are rasterized once with the font and registered with
+ * jig as a frameset, so drawing text is a blit per glyph without any text
+ * layout or allocation.
+ * 
+ * @author vitaliy
+ *
+ */
+public class GlyphAtlas {
+	
+	private final String [] glyphs;
+	private final int [] widths;
+	private final List<ImageResource> frames;
+	private final int height;
+	
+	/**
+	 * @param name - name of the frameset registered with jig
+	 * @param font
+	 * @param g - glyphs to rasterize
+	 */
+	public GlyphAtlas(String name, FontResource font, String [] g) {
+		glyphs = g;
+		widths = new int[g.length];
+		height = font.getHeight();
+		
+		BufferedImage [] images = new BufferedImage[g.length];
+		AffineTransform at = new AffineTransform();
+		for (int i = 0; i < g.length; i++) {
+			widths[i] = font.getStringWidth(g[i]);
+			images[i] = new BufferedImage(Math.max(1, widths[i]), height, 
+					BufferedImage.TYPE_INT_ARGB);
+			Graphics2D gr = images[i].createGraphics();
+			font.draw(g[i], gr, at);
+			gr.dispose();
+		}
+		
+		ResourceFactory.getFactory().putFrames(name, images);
+		frames = ResourceFactory.getFactory().getFrames(name);
+	}
+	
+	/**
+	 * @param g
+	 * @return index of glyph g, -1 if it isn't in the atlas
+	 */
+	public int indexOf(String g) {
+		for (int i = 0; i < glyphs.length; i++)
+			if (glyphs[i].equals(g))
+				return i;
+		return -1;
+	}
+	
+	public ImageResource get(int i) {
+		return frames.get(i);
+	}
+	
+	/**
+	 * @param i
+	 * @return horizontal advance of glyph i in pixels
+	 */
+	public int getWidth(int i) {
+		return widths[i];
+	}
+	
+	public int getHeight() {
+		return height;
+	}
+}
@@ -33,17 +33,15 @@ public class Goal extends MovingEntity {
 	
 	public Goal(int loc) {
 		super(Main.SPRITE_SHEET + "#goal");
-		position = new Vector2D(32*(1+2*loc), 32);
-		collisionObjects.add(new CollisionObject("colSmall", position));
-		sync(position);
+		setPosition(32*(1+2*loc), 32);
+		setShape(1, NARROW);
 		setFrame(0);
 	}
 
 	public Goal(Vector2D pos) {
 		super(Main.SPRITE_SHEET + "#goal");
-		position = pos;
-		collisionObjects.add(new CollisionObject("colSmall", position));
-		sync(position);
+		setPosition(pos);
+		setShape(1, NARROW);
 		setFrame(0);		
 	}
 	
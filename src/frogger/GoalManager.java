@@ -25,9 +25,9 @@
 
 package frogger;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Random;
 
 import jig.engine.util.Vector2D;
 
@@ -37,7 +37,7 @@ public class GoalManager {
 	final static int MAX_NUM_OF_GOALS = 6;
 	
 	private List<Goal> goals;
-	private Random r;
+	private GameRandom r;
 
 	protected boolean showingBonus = false;
 	
@@ -46,9 +46,9 @@ public class GoalManager {
 	private int dRMs = 0;
 	private int dSMs = 0;
 	
-	public GoalManager() {
-		goals = new LinkedList<Goal>();
-		r = new Random(System.currentTimeMillis());
+	public GoalManager(GameRandom rnd) {
+		goals = new ArrayList<Goal>(MAX_NUM_OF_GOALS);
+		r = rnd;
 		init(1);
 	}
 	
@@ -105,6 +105,18 @@ public class GoalManager {
 		return l;		
 	}
 	
+	/**
+	 * Same as getUnreached().size() without building a list
+	 * @return - number of goals currently haven't been reached
+	 */
+	public int getUnreachedCount() {
+		int n = 0;
+		for (int i = 0; i < goals.size(); i++)
+			if (!goals.get(i).isReached)
+				n++;
+		return n;
+	}
+	
 	/**
 	 * Based on internal timer, display bonus at a goal
 	 * that hasn't been reached for a duration specified by bonusShowMs
@@ -114,7 +126,9 @@ public class GoalManager {
 			dSMs = 0;
 			showingBonus = true;
 			List<Goal> l = getUnreached();
-			l.get(r.nextInt(l.size())).setBonus(true);
+			// the last goal may have been reached on this very tick
+			if (!l.isEmpty())
+				l.get(r.nextInt(l.size())).setBonus(true);
 		}
 		
 		if (showingBonus && dSMs > bonusShowMs) {
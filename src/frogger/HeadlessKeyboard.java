@@ -25,52 +25,41 @@
 
 package frogger;
 
-import jig.engine.util.Vector2D;
+import jig.engine.KeyInfo;
+import jig.engine.Keyboard;
 
 /**
- * Simple tiny particle
- * 
- * Used to show some weather effects
+ * Keyboard whose keys are pressed and released by code instead of AWT
  * 
  * @author vitaliy
  *
  */
-public class Particle extends MovingEntity {
+public class HeadlessKeyboard implements Keyboard {
 	
-	private int timeExpire = 1;
-	private int timeAlive = 1;
+	private boolean[] keys = new boolean[256];
 	
-	public Particle(String sprite, Vector2D pos, Vector2D v) {
-		super(sprite);
-		position = pos;
-		velocity = v;
-		setActivation(true);
-		timeExpire = 0;
+	public void press(int keyCode) {
+		keys[keyCode] = true;
 	}
 	
-	/**
-	 * Build particle with expiration timer
-	 * 
-	 * @param pos - position
-	 * @param v - velocity
-	 * @param te - expiration timer in milliseconds
-	 */
-	public Particle(String sprite, Vector2D pos, Vector2D v, int te) {
-		super(sprite);
-		position = pos;
-		velocity = v;
-		setActivation(true);
-		timeExpire = te;
+	public void release(int keyCode) {
+		keys[keyCode] = false;
 	}
 	
-	public void update(final long deltaMs) {
-		super.update(deltaMs);
-		
-		// Check the expiration
-		if (timeExpire != 0) {
-			timeAlive += deltaMs;
-			if (timeAlive > timeExpire)
-				setActivation(false);
-		}
+	public void releaseAll() {
+		for (int i = 0; i < keys.length; i++)
+			keys[i] = false;
+	}
+
+	public boolean isPressed(int keyCode) {
+		return keyCode >= 0 && keyCode < keys.length && keys[keyCode];
+	}
+
+	public void poll() {
+		;
+	}
+
+	public KeyInfo get() {
+		return null;
 	}
 }
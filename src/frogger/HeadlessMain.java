@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+/**
+ * Runs Frogger's game logic without a window, audio or sprite sheet
+ * 
+ * Time is advanced by calling tick(), so the simulation runs as fast as
+ * the CPU allows. Useful for testing, tuning and load generation.
+ * 
+ * $ java -cp build:src:lib/jig-1.7.5.jar frogger.HeadlessMain [ticks] [deltaMs] [seed] [autopilot]
+ * 
+ * The same seed always plays out the same game. With "autopilot" the
+ * PathPlanner plays, a soak test of the whole game; otherwise nobody 
+ * touches the keys.
+ * 
+ * @author vitaliy
+ *
+ */
+public class HeadlessMain {
+	
+	static final long DEFAULT_TICKS    = 100000;
+	static final long DEFAULT_DELTA_MS = 10;
+	static final long DEFAULT_SEED     = 1;
+	
+	private HeadlessKeyboard keyboard;
+	private FroggerWorld world;
+	
+	public HeadlessMain() {
+		this(DEFAULT_SEED);
+	}
+	
+	/**
+	 * @param seed - random seed of the world
+	 */
+	public HeadlessMain(long seed) {
+		HeadlessResourceFactory.install();
+		keyboard = new HeadlessKeyboard();
+		world = new FroggerWorld(keyboard, false, seed);
+	}
+	
+	public FroggerWorld getWorld() {
+		return world;
+	}
+	
+	public HeadlessKeyboard getKeyboard() {
+		return keyboard;
+	}
+	
+	/**
+	 * Advance the simulation by one game loop iteration
+	 * @param deltaMs
+	 */
+	public void tick(long deltaMs) {
+		world.update(deltaMs);
+	}
+	
+	/**
+	 * Play for a number of ticks, a new game is started whenever the last one is over
+	 * 
+	 * @param ticks
+	 * @param deltaMs
+	 */
+	public void run(long ticks, long deltaMs) {
+		for (long i = 0; i < ticks; i++) {
+			if (world.GameState != Main.GAME_PLAY && world.GameState != Main.GAME_FINISH_LEVEL)
+				world.newGame();
+			tick(deltaMs);
+		}
+	}
+	
+	public static void main(String[] args) {
+		long ticks = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_TICKS;
+		long deltaMs = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_DELTA_MS;
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+		
+		HeadlessMain h = new HeadlessMain(seed);
+		
+		Autopilot pilot = null;
+		if (args.length > 3 && args[3].equals("autopilot")) {
+			pilot = new Autopilot(h.world);
+			h.world.setKeyboard(pilot);
+		}
+		
+		long t0 = System.nanoTime();
+		h.run(ticks, deltaMs);
+		long t1 = System.nanoTime();
+		
+		double ms = (t1 - t0) / 1e6;
+		System.out.println(ticks + " ticks of " + deltaMs + " ms in " + ms + " ms wall time, "
+				+ (ticks / ms) + " ticks/ms, " 
+				+ (ticks * deltaMs / ms) + "x real time");
+		System.out.println("seed " + seed + ", level " + h.world.GameLevel 
+				+ ", score " + h.world.GameScore + ", lives " + h.world.GameLives);
+		if (pilot != null)
+			System.out.println(pilot.getPlans() + " plans, " + pilot.getMeanPlanMicros() 
+					+ " us mean, " + pilot.getMaxPlanMicros() + " us max");
+		System.out.print(h.world.getProfiler().report());
+	}
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import jig.engine.CursorResource;
+import jig.engine.FontResource;
+import jig.engine.GameFrame;
+import jig.engine.ImageResource;
+import jig.engine.RenderingContext;
+import jig.engine.ResourceFactory;
+import jig.engine.util.Vector2D;
+
+/**
+ * Resource factory for headless runs
+ * 
+ * The sprite sheet is never decoded, only frogger.xml is read to learn
+ * the size and number of frames in every frameset. Sprites get blank frames
+ * of the right dimensions, so positions, widths and collision sphere radii
+ * are exactly the same as in the windowed game.
+ * 
+ * @author vitaliy
+ *
+ */
+public class HeadlessResourceFactory extends ResourceFactory {
+	
+	private static HeadlessResourceFactory factory = null;
+	
+	/**
+	 * Make a headless factory the current jig ResourceFactory
+	 * 
+	 * jig only allows to set the factory once per JVM, so this must be called
+	 * before anything else touches ResourceFactory.getFactory()
+	 */
+	public static synchronized void install() {
+		if (factory != null)
+			return;
+		factory = new HeadlessResourceFactory();
+		setCurrentResourceFactory(factory);
+	}
+	
+	private HeadlessResourceFactory() {
+		// Same frames as PaintableCanvas.loadDefaultFrames in Main
+		putBlankFrames("col", 30, 30, 2);
+		loadFrameSizes(Main.RSC_PATH + "frogger.xml", Main.SPRITE_SHEET);
+	}
+	
+	private void putBlankFrames(String name, int w, int h, int n) {
+		List<ImageResource> frames = new ArrayList<ImageResource>(n);
+		ImageResource img = new BlankImage(w, h);
+		for (int i = 0; i < n; i++)
+			frames.add(img);
+		imgRscCache.put(name, frames);
+	}
+	
+	/**
+	 * Read framesets out of a jig frame description file
+	 * 
+	 * @param framesrc - frame description, like frogger.xml
+	 * @param sheet - sprite sheet the frames are registered under
+	 */
+	private void loadFrameSizes(String framesrc, String sheet) {
+		URL url = findResource(framesrc);
+		if (url == null)
+			throw new IllegalStateException("Can't find " + framesrc);
+		
+		try {
+			InputStream in = url.openStream();
+			Document doc;
+			try {
+				doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(in);
+			} finally {
+				in.close();
+			}
+			
+			NodeList sets = doc.getElementsByTagName("frameset");
+			for (int i = 0; i < sets.getLength(); i++) {
+				Element e = (Element) sets.item(i);
+				int n = intValue(e, "columns", 1) * intValue(e, "rows", 1);
+				putBlankFrames(sheet + "#" + textValue(e, "name"),
+						intValue(e, "width", 0), intValue(e, "height", 0), n);
+			}
+		} catch (Exception e) {
+			throw new IllegalStateException("Can't parse " + framesrc, e);
+		}
+	}
+	
+	private static String textValue(Element e, String tag) {
+		NodeList l = e.getElementsByTagName(tag);
+		if (l.getLength() == 0)
+			return null;
+		return l.item(0).getTextContent().trim();
+	}
+	
+	private static int intValue(Element e, String tag, int def) {
+		String s = textValue(e, tag);
+		return s == null ? def : Integer.parseInt(s);
+	}
+	
+	/**
+	 * Only framesets registered up front are available, nothing is loaded on demand
+	 */
+	public List<ImageResource> getFrames(String rsc) {
+		List<ImageResource> frames = imgRscCache.get(rsc);
+		if (frames == null)
+			throw new IllegalArgumentException("No headless frames for " + rsc);
+		return frames;
+	}
+	
+	protected ImageResource createImageResource(java.awt.image.BufferedImage img, 
+			int a, int b, int w, int h, int c) {
+		return new BlankImage(w, h);
+	}
+
+	public GameFrame getGameFrame(String title, int w, int h, boolean fullscreen) {
+		throw new UnsupportedOperationException("No game frame in headless mode");
+	}
+
+	public FontResource getFontResource(java.awt.Font f, java.awt.Color fg, java.awt.Color bg) {
+		throw new UnsupportedOperationException("No fonts in headless mode");
+	}
+
+	public FontResource getFontResource(java.awt.Font f, java.awt.Color fg, java.awt.Color bg, 
+			boolean b) {
+		throw new UnsupportedOperationException("No fonts in headless mode");
+	}
+
+	public CursorResource makeCursor(String rsc, Vector2D hotspot, long delay) {
+		throw new UnsupportedOperationException("No cursors in headless mode");
+	}
+	
+	/**
+	 * Image of a given size that draws nothing
+	 */
+	static class BlankImage implements ImageResource {
+		private final int width;
+		private final int height;
+		
+		BlankImage(int w, int h) {
+			width = w;
+			height = h;
+		}
+		
+		public int getWidth() {
+			return width;
+		}
+		
+		public int getHeight() {
+			return height;
+		}
+		
+		public void render(RenderingContext rc, AffineTransform at) {
+			;
+		}
+		
+		public void draw(Graphics2D g, AffineTransform at) {
+			;
+		}
+	}
+}
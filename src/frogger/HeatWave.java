@@ -25,15 +25,11 @@
 
 package frogger;
 
-import java.util.Random;
-
-import jig.engine.util.Vector2D;
-
 public class HeatWave {
 	final static int PERIOD    = 2000;  //milliseconds
 	final static int DURATION  = 1000;  //milliseconds
 	
-	Random r;
+	GameRandom r;
 	
 	private long timeMs;
 	private long durationMs;
@@ -41,11 +37,14 @@ public class HeatWave {
 	
 	public boolean isHot;
 	
-	public HeatWave() {
+	private AudioEfx audiofx;
+	
+	public HeatWave(AudioEfx a, GameRandom rnd) {
+		audiofx = a;
 		isHot = false;
 		timeMs = 0;
 		heatWaveMs = 0;
-		r = new Random(System.currentTimeMillis());
+		r = rnd;
 	}
 	
 	/**
@@ -81,7 +80,7 @@ public class HeatWave {
 				durationMs = 1;
 				isHot = true;
 				f.hw_hasMoved = false;
-				AudioEfx.heat.play(0.2);
+				audiofx.playHeat();
 			}		
 			timeMs = 0;
 		}
@@ -91,19 +90,20 @@ public class HeatWave {
 	 * Generating particles
 	 * 
 	 * @param f
-	 * @return
+	 * @param particles - system the smoke particle is emitted into
 	 */
-	public MovingEntity genParticles(Vector2D pos) {
+	public void genParticles(Frogger f, ParticleSystem particles) {
 		if (!isHot)
-			return null;
+			return;
 		
 		if (r.nextInt(100) > 10)
-			return null;
+			return;
 		
 		// Generate particles from center of the Frogger to all directions around
-		Vector2D v = new Vector2D((r.nextDouble()-0.5)*0.1,(r.nextDouble()-0.5)*0.1);
+		double vx = (r.nextDouble()-0.5)*0.1;
+		double vy = (r.nextDouble()-0.5)*0.1;
 		
-		return new Particle(Main.SPRITE_SHEET + "#smoke_cloud", pos,v,1000);
+		particles.spawn(ParticleSystem.SMOKE, f.getCenterX(), f.getCenterY(), vx, vy, 1000);
 	}
 	
 	/**
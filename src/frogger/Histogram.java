@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+/**
+ * Fixed-bucket histogram of non-negative long values, e.g. nanoseconds
+ * 
+ * Values below 8 have a bucket each, above that every power of two is
+ * split into 8 buckets, so a percentile is off by at most 12.5%. The 
+ * buckets are allocated once, record() allocates nothing.
+ * 
+ * @author vitaliy
+ *
+ */
+public class Histogram {
+	
+	static final int SUB_BITS = 3;
+	static final int SUB = 1 << SUB_BITS;
+	static final int BUCKETS = (63 - SUB_BITS + 1) * SUB + SUB;
+	
+	private final long[] counts = new long[BUCKETS];
+	private long count = 0;
+	private long max = 0;
+	private long sum = 0;
+	
+	public void record(long v) {
+		if (v < 0)
+			v = 0;
+		counts[bucket(v)]++;
+		count++;
+		sum += v;
+		if (v > max)
+			max = v;
+	}
+	
+	public long getCount() {
+		return count;
+	}
+	
+	public long getMax() {
+		return max;
+	}
+	
+	public double getMean() {
+		return count == 0 ? 0 : (double) sum / count;
+	}
+	
+	/**
+	 * @param p - percentile, 0 to 100
+	 * @return upper bound of the bucket holding the percentile, 0 if empty
+	 */
+	public long getPercentile(double p) {
+		if (count == 0)
+			return 0;
+		
+		long rank = (long) Math.ceil(p / 100 * count);
+		if (rank < 1)
+			rank = 1;
+		
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank)
+				return Math.min(upperBound(i), max);
+		}
+		return max;
+	}
+	
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++)
+			counts[i] = 0;
+		count = 0;
+		max = 0;
+		sum = 0;
+	}
+	
+	static int bucket(long v) {
+		if (v < SUB)
+			return (int) v;
+		int e = 63 - Long.numberOfLeadingZeros(v);
+		int sub = (int) (v >>> (e - SUB_BITS)) & (SUB - 1);
+		return (e - SUB_BITS + 1) * SUB + sub;
+	}
+	
+	static long upperBound(int i) {
+		if (i < SUB)
+			return i;
+		int e = i / SUB + SUB_BITS - 1;
+		long lower = (long) (SUB + i % SUB) << (e - SUB_BITS);
+		return lower + (1L << (e - SUB_BITS)) - 1;
+	}
+}
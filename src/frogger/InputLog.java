@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.awt.event.KeyEvent;
+import java.nio.ByteBuffer;
+
+/**
+ * Binary format of recorded game input, shared by InputRecorder and InputReplay
+ * 
+ * Header: MAGIC (int), VERSION (byte), game mode (byte), world seed (long).
+ * Game mode bit MODE_ENDLESS is set for endless mode.
+ * Then one record per game tick, i.e. per keyboard poll:
+ *   varint( zigzag(deltaMs - previous deltaMs) << 1 | keysChanged )
+ *   varint( key mask )                    -- only when keysChanged
+ * 
+ * A steady or jittering frame time costs one byte per tick, a change
+ * of the pressed keys a byte or two more.
+ * 
+ * @author vitaliy
+ *
+ */
+final class InputLog {
+	
+	static final int MAGIC    = 0x46524f47; // "FROG"
+	static final byte VERSION = 2;
+	
+	static final byte MODE_ENDLESS = 1;
+	
+	static final int HEADER_SIZE = 4 + 1 + 1 + 8;
+	
+	// Longest varint of an int
+	static final int MAX_VARINT_SIZE = 5;
+	
+	/**
+	 * Every key the input handlers look at, bit i of the key mask is KEYS[i]
+	 */
+	static final int[] KEYS = {
+		KeyEvent.VK_UP, KeyEvent.VK_DOWN, KeyEvent.VK_LEFT, KeyEvent.VK_RIGHT,
+		KeyEvent.VK_SPACE, KeyEvent.VK_ESCAPE, KeyEvent.VK_H, 
+		KeyEvent.VK_C, KeyEvent.VK_V, KeyEvent.VK_0
+	};
+	
+	private InputLog() {
+	}
+	
+	/**
+	 * @return bit of keyCode in the key mask, 0 if the key is not recorded
+	 */
+	static int bit(int keyCode) {
+		for (int i = 0; i < KEYS.length; i++)
+			if (KEYS[i] == keyCode)
+				return 1 << i;
+		return 0;
+	}
+	
+	static void putVarint(ByteBuffer b, int v) {
+		while ((v & ~0x7f) != 0) {
+			b.put((byte) ((v & 0x7f) | 0x80));
+			v >>>= 7;
+		}
+		b.put((byte) v);
+	}
+	
+	static int getVarint(ByteBuffer b) {
+		int v = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int x = b.get();
+			v |= (x & 0x7f) << shift;
+			if ((x & 0x80) == 0)
+				return v;
+		}
+		throw new IllegalArgumentException("Malformed varint at " + b.position());
+	}
+	
+	static int zigzag(int v) {
+		return (v << 1) ^ (v >> 31);
+	}
+	
+	static int unzigzag(int v) {
+		return (v >>> 1) ^ -(v & 1);
+	}
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import jig.engine.KeyInfo;
+import jig.engine.Keyboard;
+
+/**
+ * Keyboard that records what the input handlers see, tick by tick
+ * 
+ * Wraps the real keyboard of a freshly built world. Every poll() is one
+ * game tick, its frame time and the recorded keys are appended to the
+ * file in InputLog format. Play it back with InputReplay / ReplayMain.
+ * 
+ * @author vitaliy
+ *
+ */
+public class InputRecorder implements Keyboard {
+	
+	private Keyboard keyboard;
+	private FroggerWorld world;
+	
+	private FileChannel channel;
+	private ByteBuffer buffer = ByteBuffer.allocateDirect(4096);
+	
+	private long lastTimeMs;
+	private int lastDeltaMs = 0;
+	private int lastMask = 0;
+	
+	private long ticks = 0;
+	
+	/**
+	 * Start recording, call before the first world update and after the
+	 * game mode is set
+	 * 
+	 * @param w - world whose input is recorded
+	 * @param k - keyboard being recorded
+	 * @param file
+	 * @throws IOException
+	 */
+	public InputRecorder(FroggerWorld w, Keyboard k, Path file) throws IOException {
+		world = w;
+		keyboard = k;
+		lastTimeMs = w.getTime();
+		
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, 
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		
+		buffer.putInt(InputLog.MAGIC);
+		buffer.put(InputLog.VERSION);
+		buffer.put(w.getEndless() != null ? InputLog.MODE_ENDLESS : 0);
+		buffer.putLong(w.getSeed());
+	}
+	
+	public synchronized void poll() {
+		keyboard.poll();
+		
+		if (channel == null)
+			return;
+		
+		int mask = 0;
+		for (int i = 0; i < InputLog.KEYS.length; i++)
+			if (keyboard.isPressed(InputLog.KEYS[i]))
+				mask |= 1 << i;
+		
+		// The world clock was already advanced by this tick's update
+		int deltaMs = (int) (world.getTime() - lastTimeMs);
+		lastTimeMs = world.getTime();
+		
+		int changed = (mask != lastMask) ? 1 : 0;
+		
+		if (buffer.remaining() < 2 * InputLog.MAX_VARINT_SIZE)
+			flush();
+		
+		InputLog.putVarint(buffer, (InputLog.zigzag(deltaMs - lastDeltaMs) << 1) | changed);
+		if (changed != 0)
+			InputLog.putVarint(buffer, mask);
+		
+		lastDeltaMs = deltaMs;
+		lastMask = mask;
+		ticks++;
+	}
+	
+	public boolean isPressed(int keyCode) {
+		return keyboard.isPressed(keyCode);
+	}
+
+	public KeyInfo get() {
+		return keyboard.get();
+	}
+	
+	/**
+	 * @return number of ticks recorded so far
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+	
+	/**
+	 * Write out what is buffered and close the file, later ticks are not recorded
+	 */
+	public synchronized void close() {
+		if (channel == null)
+			return;
+		
+		flush();
+		try {
+			channel.close();
+		} catch (IOException e) {
+			System.err.println("Input recording: " + e);
+		}
+		channel = null;
+	}
+	
+	private void flush() {
+		buffer.flip();
+		try {
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+		} catch (IOException e) {
+			// Never take the game down because of the recording
+			System.err.println("Input recording stopped: " + e);
+			try {
+				channel.close();
+			} catch (IOException ignored) {
+			}
+			channel = null;
+		}
+		buffer.clear();
+	}
+}
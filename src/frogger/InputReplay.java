@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import jig.engine.KeyInfo;
+import jig.engine.Keyboard;
+
+/**
+ * Keyboard that plays back a file written by InputRecorder
+ * 
+ * The driver asks for nextDeltaMs() and updates the world with it, the
+ * input handler's poll() in that update then presses the recorded keys.
+ * 
+ * @author vitaliy
+ *
+ */
+public class InputReplay implements Keyboard {
+	
+	private ByteBuffer data;
+	private long seed;
+	private boolean endless;
+	
+	private int deltaMs = 0;
+	private int mask = 0;
+	private int nextMask = 0;
+	
+	public InputReplay(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			data = ByteBuffer.allocate((int) channel.size());
+			while (data.hasRemaining() && channel.read(data) >= 0)
+				;
+			data.flip();
+		} finally {
+			channel.close();
+		}
+		
+		if (data.remaining() < InputLog.HEADER_SIZE || data.getInt() != InputLog.MAGIC)
+			throw new IOException(file + " is not a Frogger input recording");
+		if (data.get() != InputLog.VERSION)
+			throw new IOException(file + " has an unsupported version");
+		
+		endless = (data.get() & InputLog.MODE_ENDLESS) != 0;
+		seed = data.getLong();
+	}
+	
+	/**
+	 * @return seed of the recorded world
+	 */
+	public long getSeed() {
+		return seed;
+	}
+	
+	/**
+	 * @return true if the recorded world played endless mode
+	 */
+	public boolean isEndless() {
+		return endless;
+	}
+	
+	/**
+	 * Start over from the first tick
+	 */
+	public void rewind() {
+		data.position(InputLog.HEADER_SIZE);
+		deltaMs = 0;
+		mask = 0;
+		nextMask = 0;
+	}
+	
+	public boolean hasNext() {
+		return data.hasRemaining();
+	}
+	
+	/**
+	 * Read the next tick
+	 * @return frame time of the tick in milliseconds
+	 */
+	public int nextDeltaMs() {
+		int v = InputLog.getVarint(data);
+		deltaMs += InputLog.unzigzag(v >>> 1);
+		if ((v & 1) != 0)
+			nextMask = InputLog.getVarint(data);
+		return deltaMs;
+	}
+
+	public void poll() {
+		mask = nextMask;
+	}
+	
+	public boolean isPressed(int keyCode) {
+		return (mask & InputLog.bit(keyCode)) != 0;
+	}
+
+	public KeyInfo get() {
+		return null;
+	}
+}
@@ -0,0 +1,248 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import jig.engine.ResourceFactory;
+import jig.engine.util.Vector2D;
+
+/**
+ * Traffic lanes of the world, read from a lane file like resources/lanes.txt
+ * 
+ * Every line of the file describes one lane: its row, direction, speed and
+ * what it builds, see the comments in lanes.txt. FroggerWorld makes a
+ * MovingEntityFactory per lane and drives them all in one loop, so new
+ * layouts need no code changes.
+ * 
+ * @author vitaliy
+ *
+ */
+public class LaneConfig {
+	
+	public static final String LANES = Main.RSC_PATH + "lanes.txt";
+	
+	// What a lane builds
+	public static final int VEHICLES   = 0;
+	public static final int TURTLES    = 1;
+	public static final int CROCODILES = 2;
+	
+	static final String [] MIX_NAMES = { "vehicles", "turtles", "crocodiles" };
+	
+	private static LaneConfig defaultConfig = null;
+	
+	private final Lane [] lanes;
+	
+	/**
+	 * @return lanes of resources/lanes.txt, read once
+	 */
+	public static synchronized LaneConfig getDefault() {
+		if (defaultConfig == null)
+			defaultConfig = load(LANES);
+		return defaultConfig;
+	}
+	
+	/**
+	 * @param path - resource path of a lane file
+	 */
+	public static LaneConfig load(String path) {
+		URL url = ResourceFactory.findResource(path);
+		if (url == null)
+			throw new IllegalStateException("Can't find " + path);
+		
+		try {
+			BufferedReader in = new BufferedReader(
+					new InputStreamReader(url.openStream(), "UTF-8"));
+			try {
+				return parse(in, path);
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Can't read " + path, e);
+		}
+	}
+	
+	/**
+	 * @param in - lane file, one lane per line, # starts a comment
+	 * @param name - of the file, for error messages
+	 */
+	static LaneConfig parse(BufferedReader in, String name) throws IOException {
+		List<Lane> l = new ArrayList<Lane>();
+		String line;
+		int n = 0;
+		while ((line = in.readLine()) != null) {
+			n++;
+			int c = line.indexOf('#');
+			if (c >= 0)
+				line = line.substring(0, c);
+			line = line.trim();
+			if (line.length() == 0)
+				continue;
+			
+			try {
+				l.add(new Lane(line.split("\\s+")));
+			} catch (RuntimeException e) {
+				throw new IllegalStateException(name + ":" + n + ": " + e.getMessage(), e);
+			}
+		}
+		if (l.isEmpty())
+			throw new IllegalStateException(name + " has no lanes");
+		return new LaneConfig(l.toArray(new Lane[l.size()]));
+	}
+	
+	public LaneConfig(Lane [] l) {
+		lanes = l;
+	}
+	
+	public int size() {
+		return lanes.length;
+	}
+	
+	public Lane get(int i) {
+		return lanes[i];
+	}
+	
+	/**
+	 * @param level
+	 * @return mean of the lanes' speed-ups at level, 1 at level 0
+	 */
+	public double getMeanSpeedUp(int level) {
+		double sum = 0;
+		for (int i = 0; i < lanes.length; i++)
+			sum += lanes[i].getSpeedUp(level);
+		return lanes.length == 0 ? 1 : sum / lanes.length;
+	}
+	
+	/**
+	 * One lane of traffic
+	 */
+	public static class Lane {
+		public final String name;
+		public final int row;
+		public final int dir;
+		public final double speed;
+		public final double scale;
+		public final int margin;
+		public final int mix;
+		public final int chance;
+		public final int alt;
+		
+		/**
+		 * @param f - fields of a lane file line
+		 */
+		Lane(String [] f) {
+			if (f.length != 9)
+				throw new IllegalArgumentException("expected 9 fields, got " + f.length);
+			
+			name   = f[0];
+			row    = Integer.parseInt(f[1]);
+			dir    = direction(f[2]);
+			speed  = Double.parseDouble(f[3]);
+			scale  = Double.parseDouble(f[4]);
+			margin = Integer.parseInt(f[5]);
+			mix    = mix(f[6]);
+			chance = Integer.parseInt(f[7]);
+			alt    = Integer.parseInt(f[8]);
+			
+			if (speed <= 0)
+				throw new IllegalArgumentException("speed must be positive");
+			int rows = Main.WORLD_HEIGHT / LaneIndex.ROW_HEIGHT;
+			if (row < 0 || row >= rows)
+				throw new IllegalArgumentException("row must be 0 to " + (rows - 1) + ", not " + row);
+			percent("chance", chance);
+			percent("alt", alt);
+		}
+		
+		private static void percent(String field, int n) {
+			if (n < 0 || n > 100)
+				throw new IllegalArgumentException(field + " must be 0 to 100, not " + n);
+		}
+		
+		/**
+		 * Lane built in code rather than read from a file, see EndlessLanes
+		 * 
+		 * @param dir - -1 for left, 1 for right
+		 * @param mix - VEHICLES, TURTLES or CROCODILES
+		 */
+		public Lane(String name, int row, int dir, double speed, double scale, 
+				int margin, int mix, int chance, int alt) {
+			this.name   = name;
+			this.row    = row;
+			this.dir    = dir;
+			this.speed  = speed;
+			this.scale  = scale;
+			this.margin = margin;
+			this.mix    = mix;
+			this.chance = chance;
+			this.alt    = alt;
+		}
+		
+		private static int direction(String s) {
+			if (s.equals("left"))
+				return -1;
+			if (s.equals("right"))
+				return 1;
+			throw new IllegalArgumentException("direction must be left or right, not " + s);
+		}
+		
+		private static int mix(String s) {
+			for (int i = 0; i < MIX_NAMES.length; i++)
+				if (MIX_NAMES[i].equals(s))
+					return i;
+			throw new IllegalArgumentException("unknown mix " + s);
+		}
+		
+		/**
+		 * @return where entities enter the world
+		 */
+		public Vector2D getStart() {
+			return new Vector2D(dir > 0 ? -margin : Main.WORLD_WIDTH + margin, 
+					row * LaneIndex.ROW_HEIGHT);
+		}
+		
+		/**
+		 * @param level
+		 * @return velocity of the lane's entities at level
+		 */
+		public Vector2D getVelocity(int level) {
+			return new Vector2D(dir * (speed * getSpeedUp(level)), 0);
+		}
+		
+		/**
+		 * @param level
+		 * @return factor the lane's speed is multiplied by at level
+		 */
+		public double getSpeedUp(int level) {
+			return level * scale + 1;
+		}
+	}
+}
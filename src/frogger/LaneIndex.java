@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moving entities bucketed by the 32 pixel row they travel in
+ * 
+ * None of the traffic ever changes its row, so an entity is filed once
+ * when it's built and dropped once it goes inactive. Collision detection
+ * then only has to look at the rows around Frogger instead of the whole
+ * movingObjectsLayer.
+ * 
+ * Each row also knows its TrafficLanes, whose entities are in travel
+ * order, and the entities moving on their own like goals and cop cars.
+ * 
+ * @author vitaliy
+ *
+ */
+public class LaneIndex {
+	
+	static final int ROW_HEIGHT = 32;
+	
+	private List<List<MovingEntity>> rows;
+	private List<List<MovingEntity>> free;
+	private List<List<TrafficLane>> traffic;
+	
+	/**
+	 * @param numRows - number of rows in the game world
+	 */
+	public LaneIndex(int numRows) {
+		rows = new ArrayList<List<MovingEntity>>(numRows);
+		free = new ArrayList<List<MovingEntity>>(numRows);
+		traffic = new ArrayList<List<TrafficLane>>(numRows);
+		for (int i = 0; i < numRows; i++) {
+			rows.add(new ArrayList<MovingEntity>());
+			free.add(new ArrayList<MovingEntity>());
+			traffic.add(new ArrayList<TrafficLane>(1));
+		}
+	}
+	
+	/**
+	 * Row an y coordinate falls into
+	 * @param y
+	 * @return
+	 */
+	public static int rowOf(double y) {
+		return (int) Math.floor(y / ROW_HEIGHT);
+	}
+	
+	public int getNumRows() {
+		return rows.size();
+	}
+	
+	/**
+	 * File entity under the row of its position,
+	 * entities outside of the world can't be hit and aren't filed
+	 * @param m
+	 */
+	public void add(MovingEntity m) {
+		int row = rowOf(m.getPosition().getY());
+		if (row < 0 || row >= rows.size())
+			return;
+		rows.get(row).add(m);
+		if (!m.isInLane())
+			free.get(row).add(m);
+	}
+	
+	/**
+	 * File a lane running along a row, its entities are still add()ed one by one
+	 * @param t
+	 * @param row
+	 */
+	public void addTraffic(TrafficLane t, int row) {
+		traffic.get(row).add(t);
+	}
+	
+	/**
+	 * Entities in a row, in the order they were added
+	 * @param row
+	 * @return
+	 */
+	public List<MovingEntity> getRow(int row) {
+		return rows.get(row);
+	}
+	
+	/**
+	 * Entities in a row that aren't in a TrafficLane
+	 * @param row
+	 * @return
+	 */
+	public List<MovingEntity> getFree(int row) {
+		return free.get(row);
+	}
+	
+	/**
+	 * Lanes running along a row
+	 * @param row
+	 * @return
+	 */
+	public List<TrafficLane> getTraffic(int row) {
+		return traffic.get(row);
+	}
+	
+	/**
+	 * Drop entities that went inactive, should be called once per update
+	 */
+	public void removeInactive() {
+		for (int r = 0; r < rows.size(); r++) {
+			removeInactive(rows.get(r));
+			removeInactive(free.get(r));
+		}
+	}
+	
+	private static void removeInactive(List<MovingEntity> row) {
+		int n = 0;
+		for (int i = 0; i < row.size(); i++) {
+			MovingEntity m = row.get(i);
+			if (m.isActive())
+				row.set(n++, m);
+		}
+		for (int i = row.size() - 1; i >= n; i--)
+			row.remove(i);
+	}
+	
+	public void clear() {
+		for (int r = 0; r < rows.size(); r++) {
+			rows.get(r).clear();
+			free.get(r).clear();
+			traffic.get(r).clear();
+		}
+	}
+	
+	/**
+	 * @return total number of filed entities
+	 */
+	public int size() {
+		int n = 0;
+		for (List<MovingEntity> row : rows)
+			n += row.size();
+		return n;
+	}
+}
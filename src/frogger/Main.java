@@ -25,15 +25,17 @@
 
 package frogger;
 
-import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import javax.management.JMException;
+
 import jig.engine.ImageResource;
 import jig.engine.PaintableCanvas;
 import jig.engine.RenderingContext;
 import jig.engine.ResourceFactory;
 import jig.engine.PaintableCanvas.JIGSHAPE;
-import jig.engine.hli.ImageBackgroundLayer;
 import jig.engine.hli.StaticScreenGame;
-import jig.engine.physics.AbstractBodyLayer;
 import jig.engine.util.Vector2D;
 
 public class Main extends StaticScreenGame {
@@ -48,48 +50,16 @@ public class Main extends StaticScreenGame {
     static final int STARTING_LEVEL     = 1;
 	static final int DEFAULT_LEVEL_TIME = 60;
 	
-	private FroggerCollisionDetection frogCol;
-	private Frogger frog;
-	private AudioEfx audiofx;
+	private FroggerWorld world;
 	private FroggerUI ui;
-	private WindGust wind;
-	private HeatWave hwave;
-	private GoalManager goalmanager;
-	
-	private AbstractBodyLayer<MovingEntity> movingObjectsLayer;
-	private AbstractBodyLayer<MovingEntity> particleLayer;
-	
-	private MovingEntityFactory roadLine1;
-	private MovingEntityFactory roadLine2;
-	private MovingEntityFactory roadLine3;
-	private MovingEntityFactory roadLine4;
-	private MovingEntityFactory roadLine5;
 	
-	private MovingEntityFactory riverLine1;
-	private MovingEntityFactory riverLine2;
-	private MovingEntityFactory riverLine3;
-	private MovingEntityFactory riverLine4;
-	private MovingEntityFactory riverLine5;
-	
-	private ImageBackgroundLayer backgroundLayer;
+	private SceneCache backgroundLayer;
 	
     static final int GAME_INTRO        = 0;
     static final int GAME_PLAY         = 1;
     static final int GAME_FINISH_LEVEL = 2;
     static final int GAME_INSTRUCTIONS = 3;
     static final int GAME_OVER         = 4;
-    
-	protected int GameState = GAME_INTRO;
-	protected int GameLevel = STARTING_LEVEL;
-	
-    public int GameLives    = FROGGER_LIVES;
-    public int GameScore    = 0;
-    
-    public int levelTimer = DEFAULT_LEVEL_TIME;
-    
-    private boolean space_has_been_released = false;
-	private boolean keyPressed = false;
-	private boolean listenInput = true;
 	
     /**
 	 * Initialize game objects
@@ -100,231 +70,28 @@ public class Main extends StaticScreenGame {
 		
 		gameframe.setTitle("Frogger");
 		
-		ResourceFactory.getFactory().loadResources(RSC_PATH, "resources.xml");
+		// Sounds decode in the background while the sprite sheet loads, 
+		// the intro shows as soon as the sprites are ready
+		AudioEfx.preload();
+		AssetPack pack = AssetPack.getPack();
+		if (pack == null || !pack.loadSpriteSheet(SPRITE_SHEET))
+			ResourceFactory.getFactory().loadResources(RSC_PATH, "resources.xml");
 
 		ImageResource bkg = ResourceFactory.getFactory().getFrames(
 				SPRITE_SHEET + "#background").get(0);
-		backgroundLayer = new ImageBackgroundLayer(bkg, WORLD_WIDTH,
-				WORLD_HEIGHT, ImageBackgroundLayer.TILE_IMAGE);
+		backgroundLayer = new SceneCache(bkg, WORLD_WIDTH, WORLD_HEIGHT);
 		
-		// Used in CollisionObject, basically 2 different collision spheres
-		// 30x30 is a large sphere (sphere that fits inside a 30x30 pixel rectangle)
-		//  4x4 is a tiny sphere
+		// Used in CollisionObject, Frogger's 30x30 collision sphere
+		// (sphere that fits inside a 30x30 pixel rectangle)
 		PaintableCanvas.loadDefaultFrames("col", 30, 30, 2, JIGSHAPE.RECTANGLE, null);
-		PaintableCanvas.loadDefaultFrames("colSmall", 4, 4, 2, JIGSHAPE.RECTANGLE, null);
-			
-		frog = new Frogger(this);
-		frogCol = new FroggerCollisionDetection(frog);
-		audiofx = new AudioEfx(frogCol,frog);
-		ui = new FroggerUI(this);
-		wind = new WindGust();
-		hwave = new HeatWave();
-		goalmanager = new GoalManager();
-		
-		movingObjectsLayer = new AbstractBodyLayer.IterativeUpdate<MovingEntity>();
-		particleLayer = new AbstractBodyLayer.IterativeUpdate<MovingEntity>();
-		
-		initializeLevel(1);
-	}
-	
-	
-	public void initializeLevel(int level) {
-
-		/* dV is the velocity multiplier for all moving objects at the current game level */
-		double dV = level*0.05 + 1;
-		
-		movingObjectsLayer.clear();
-		
-		/* River Traffic */
-		riverLine1 = new MovingEntityFactory(new Vector2D(-(32*3),2*32), 
-				new Vector2D(0.06*dV,0)); 
-		
-		riverLine2 = new MovingEntityFactory(new Vector2D(Main.WORLD_WIDTH,3*32),  
-				new Vector2D(-0.04*dV,0)); 
-		
-		riverLine3 = new MovingEntityFactory(new Vector2D(-(32*3),4*32), 
-				new Vector2D(0.09*dV,0)); 
-		
-		riverLine4 = new MovingEntityFactory(new Vector2D(-(32*4),5*32),  
-				new Vector2D(0.045*dV,0));
-		
-		riverLine5 = new MovingEntityFactory(new Vector2D(Main.WORLD_WIDTH,6*32), 
-				new Vector2D(-0.045*dV,0));
-		
-		/* Road Traffic */
-		roadLine1 = new MovingEntityFactory(new Vector2D(Main.WORLD_WIDTH, 8*32), 
-				new Vector2D(-0.1*dV, 0)); 
-		
-		roadLine2 = new MovingEntityFactory(new Vector2D(-(32*4), 9*32), 
-				new Vector2D(0.08*dV, 0)); 
-		
-		roadLine3 = new MovingEntityFactory(new Vector2D(Main.WORLD_WIDTH, 10*32),
-			    new Vector2D(-0.12*dV, 0)); 
-		
-		roadLine4 = new MovingEntityFactory(new Vector2D(-(32*4), 11*32),
-				new Vector2D(0.075*dV, 0));
-		
-		roadLine5 = new MovingEntityFactory(new Vector2D(Main.WORLD_WIDTH, 12*32),
-				new Vector2D(-0.05*dV, 0)); 
-		
-		goalmanager.init(level);
-		for (Goal g : goalmanager.get()) {
-			movingObjectsLayer.add(g);
-		}
 			
-		/* Build some traffic before game starts buy running MovingEntityFactories for fews cycles */
-		for (int i=0; i<500; i++)
-			cycleTraffic(10);
-	}
-	
-	
-	/**
-	 * Populate movingObjectLayer with a cycle of cars/trucks, moving tree logs, etc
-	 * 
-	 * @param deltaMs
-	 */
-	public void cycleTraffic(long deltaMs) {
-		MovingEntity m;
-		/* Road traffic updates */
-		roadLine1.update(deltaMs);
-	    if ((m = roadLine1.buildVehicle()) != null) movingObjectsLayer.add(m);
-		
-		roadLine2.update(deltaMs);
-	    if ((m = roadLine2.buildVehicle()) != null) movingObjectsLayer.add(m);
-	    
-		roadLine3.update(deltaMs);
-	    if ((m = roadLine3.buildVehicle()) != null) movingObjectsLayer.add(m);
-	    
-		roadLine4.update(deltaMs);
-	    if ((m = roadLine4.buildVehicle()) != null) movingObjectsLayer.add(m);
-
-		roadLine5.update(deltaMs);
-	    if ((m = roadLine5.buildVehicle()) != null) movingObjectsLayer.add(m);
-	    
-		
-		/* River traffic updates */
-		riverLine1.update(deltaMs);
-	    if ((m = riverLine1.buildShortLogWithTurtles(40)) != null) movingObjectsLayer.add(m);
-		
-		riverLine2.update(deltaMs);
-	    if ((m = riverLine2.buildLongLogWithCrocodile(30)) != null) movingObjectsLayer.add(m);
-		
-		riverLine3.update(deltaMs);
-	    if ((m = riverLine3.buildShortLogWithTurtles(50)) != null) movingObjectsLayer.add(m);
-		
-		riverLine4.update(deltaMs);
-	    if ((m = riverLine4.buildLongLogWithCrocodile(20)) != null) movingObjectsLayer.add(m);
-
-		riverLine5.update(deltaMs);
-	    if ((m = riverLine5.buildShortLogWithTurtles(10)) != null) movingObjectsLayer.add(m);
-	    
-	    // Do Wind
-	    if ((m = wind.genParticles(GameLevel)) != null) particleLayer.add(m);
-	    
-	    // HeatWave
-	    if ((m = hwave.genParticles(frog.getCenterPosition())) != null) particleLayer.add(m);
-	        
-	    movingObjectsLayer.update(deltaMs);
-	    particleLayer.update(deltaMs);
-	}
-	
-	/**
-	 * Handling Frogger movement from keyboard input
-	 */
-	public void froggerKeyboardHandler() {
- 		keyboard.poll();
-		
- 		boolean keyReleased = false;
-        boolean downPressed = keyboard.isPressed(KeyEvent.VK_DOWN);
-        boolean upPressed = keyboard.isPressed(KeyEvent.VK_UP);
-		boolean leftPressed = keyboard.isPressed(KeyEvent.VK_LEFT);
-		boolean rightPressed = keyboard.isPressed(KeyEvent.VK_RIGHT);
-		
-		// Enable/Disable cheating
-		if (keyboard.isPressed(KeyEvent.VK_C))
-			frog.cheating = true;
-		if (keyboard.isPressed(KeyEvent.VK_V))
-			frog.cheating = false;
-		if (keyboard.isPressed(KeyEvent.VK_0)) {
-			GameLevel = 10;
-			initializeLevel(GameLevel);
-		}
+		world = new FroggerWorld(keyboard, true);
+		ui = new FroggerUI(world);
 		
-		
-		/*
-		 * This logic checks for key strokes.
-		 * It registers a key press, and ignores all other key strokes
-		 * until the first key has been released
-		 */
-		if (downPressed || upPressed || leftPressed || rightPressed)
-			keyPressed = true;
-		else if (keyPressed)
-			keyReleased = true;
-		
-		if (listenInput) {
-		    if (downPressed) frog.moveDown();
-		    if (upPressed) frog.moveUp();
-		    if (leftPressed) frog.moveLeft();
-	 	    if (rightPressed) frog.moveRight();
-	 	    
-	 	    if (keyPressed)
-	            listenInput = false;
-		}
-		
-		if (keyReleased) {
-			listenInput = true;
-			keyPressed = false;
-		}
-		
-		if (keyboard.isPressed(KeyEvent.VK_ESCAPE))
-			GameState = GAME_INTRO;
-	}
-	
-	/**
-	 * Handle keyboard events while at the game intro menu
-	 */
-	public void menuKeyboardHandler() {
-		keyboard.poll();
-		
-		// Following 2 if statements allow capture space bar key strokes
-		if (!keyboard.isPressed(KeyEvent.VK_SPACE)) {
-			space_has_been_released = true;
-		}
-		
-		if (!space_has_been_released)
-			return;
-		
-		if (keyboard.isPressed(KeyEvent.VK_SPACE)) {
-			switch (GameState) {
-			case GAME_INSTRUCTIONS:
-			case GAME_OVER:
-				GameState = GAME_INTRO;
-				space_has_been_released = false;
-				break;
-			default:
-				GameLives = FROGGER_LIVES;
-				GameScore = 0;
-				GameLevel = STARTING_LEVEL;
-				levelTimer = DEFAULT_LEVEL_TIME;
-				frog.setPosition(FROGGER_START);
-				GameState = GAME_PLAY;
-				audiofx.playGameMusic();
-				initializeLevel(GameLevel);			
-			}
-		}
-		if (keyboard.isPressed(KeyEvent.VK_H))
-			GameState = GAME_INSTRUCTIONS;
-	}
-	
-	/**
-	 * Handle keyboard when finished a level
-	 */
-	public void finishLevelKeyboardHandler() {
-		keyboard.poll();
-		if (keyboard.isPressed(KeyEvent.VK_SPACE)) {
-			GameState = GAME_PLAY;
-			audiofx.playGameMusic();
-			initializeLevel(++GameLevel);
+		try {
+			GameMetrics.register(world);
+		} catch (JMException e) {
+			System.err.println("Can't publish game metrics over JMX: " + e);
 		}
 	}
 	
@@ -333,58 +100,10 @@ public class Main extends StaticScreenGame {
 	 * w00t
 	 */
 	public void update(long deltaMs) {
-		switch(GameState) {
-		case GAME_PLAY:
-			froggerKeyboardHandler();
-			wind.update(deltaMs);
-			hwave.update(deltaMs);
-			frog.update(deltaMs);
-			audiofx.update(deltaMs);
-			ui.update(deltaMs);
-
-			cycleTraffic(deltaMs);
-			frogCol.testCollision(movingObjectsLayer);
-			
-			// Wind gusts work only when Frogger is on the river
-			if (frogCol.isInRiver())
-				wind.start(GameLevel);		
-			wind.perform(frog, GameLevel, deltaMs);
-			
-			// Do the heat wave only when Frogger is on hot pavement
-			if (frogCol.isOnRoad())
-				hwave.start(frog, GameLevel);
-			hwave.perform(frog, deltaMs, GameLevel);
-			
-	
-			if (!frog.isAlive)
-				particleLayer.clear();
-			
-			goalmanager.update(deltaMs);
-			
-			if (goalmanager.getUnreached().size() == 0) {
-				GameState = GAME_FINISH_LEVEL;
-				audiofx.playCompleteLevel();
-				particleLayer.clear();
-			}
-			
-			if (GameLives < 1) {
-				GameState = GAME_OVER;
-			}
-			
-			break;
+		world.update(deltaMs);
 		
-		case GAME_OVER:		
-		case GAME_INSTRUCTIONS:
-		case GAME_INTRO:
-			goalmanager.update(deltaMs);
-			menuKeyboardHandler();
-			cycleTraffic(deltaMs);
-			break;
-			
-		case GAME_FINISH_LEVEL:
-			finishLevelKeyboardHandler();
-			break;		
-		}
+		if (world.GameState == GAME_PLAY)
+			ui.update(deltaMs);
 	}
 	
 	
@@ -392,36 +111,135 @@ public class Main extends StaticScreenGame {
 	 * Rendering game objects
 	 */
 	public void render(RenderingContext rc) {
-		switch(GameState) {
+		FrameProfiler profiler = world.profiler;
+		long t0 = profiler.start();
+		long t = t0;
+		
+		if (world.getEndless() != null)
+			backgroundLayer.compose(world.getEndless());
+		
+		switch(world.GameState) {
 		case GAME_FINISH_LEVEL:
+			// Nothing moves until the next level, draw a single freeze frame
+			if (!backgroundLayer.isFrozen())
+				backgroundLayer.freeze(world);
+			backgroundLayer.render(rc);
+			t = profiler.lap(FrameProfiler.BACKGROUND, t);
+			
+			world.particles.render(rc);
+			t = profiler.lap(FrameProfiler.PARTICLES, t);
+			ui.render(rc);
+			profiler.lap(FrameProfiler.UI, t);
+			break;
+			
 		case GAME_PLAY:
+			backgroundLayer.thaw();
 			backgroundLayer.render(rc);
+			t = profiler.lap(FrameProfiler.BACKGROUND, t);
 			
-			if (frog.isAlive) {
-				movingObjectsLayer.render(rc);
-				//frog.collisionObjects.get(0).render(rc);
-				frog.render(rc);		
+			if (world.frog.isAlive) {
+				world.movingObjectsLayer.render(rc);
+				//world.frog.getCollisionSphere().render(rc);
+				world.frog.render(rc);		
 			} else {
-				frog.render(rc);
-				movingObjectsLayer.render(rc);				
+				world.frog.render(rc);
+				world.movingObjectsLayer.render(rc);				
 			}
+			t = profiler.lap(FrameProfiler.ENTITIES, t);
 			
-			particleLayer.render(rc);
+			world.particles.render(rc);
+			t = profiler.lap(FrameProfiler.PARTICLES, t);
 			ui.render(rc);
+			profiler.lap(FrameProfiler.UI, t);
 			break;
 			
 		case GAME_OVER:
 		case GAME_INSTRUCTIONS:
 		case GAME_INTRO:
+			// Traffic keeps moving behind the menus, no freeze frame here
+			backgroundLayer.thaw();
 			backgroundLayer.render(rc);
-			movingObjectsLayer.render(rc);
+			t = profiler.lap(FrameProfiler.BACKGROUND, t);
+			world.movingObjectsLayer.render(rc);
+			t = profiler.lap(FrameProfiler.ENTITIES, t);
 			ui.render(rc);
+			profiler.lap(FrameProfiler.UI, t);
 			break;		
 		}
+		
+		profiler.lap(FrameProfiler.RENDER, t0);
+	}
+	
+	/**
+	 * Record the player's input to a file until the game exits, see ReplayMain
+	 * @param file
+	 */
+	public void record(String file) {
+		try {
+			final InputRecorder recorder = new InputRecorder(world, world.getKeyboard(), 
+					Paths.get(file));
+			world.setKeyboard(recorder);
+			
+			Runtime.getRuntime().addShutdownHook(new Thread() {
+				public void run() {
+					recorder.close();
+				}
+			});
+		} catch (IOException e) {
+			System.err.println("Can't record input to " + file + ": " + e);
+		}
+	}
+	
+	/**
+	 * Attract mode, the PathPlanner plays instead of the keyboard
+	 */
+	public void autopilot() {
+		world.setKeyboard(new Autopilot(world));
 	}
 	
+	/**
+	 * Endless mode, procedural lanes scrolling by as Frogger climbs
+	 */
+	public void endless() {
+		world.setEndless(true);
+	}
+	
+	/**
+	 * Print the frame time histograms when the game exits
+	 */
+	public void profile() {
+		final FrameProfiler profiler = world.getProfiler();
+		Runtime.getRuntime().addShutdownHook(new Thread() {
+			public void run() {
+				System.out.print(profiler.report());
+			}
+		});
+	}
+	
+	/**
+	 * $ java frogger.Main [-endless] [-autopilot] [-profile] [-record file]
+	 */
 	public static void main (String[] args) {
 		Main f = new Main();
+		
+		String recording = null;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-endless"))
+				f.endless();
+			else if (args[i].equals("-autopilot"))
+				f.autopilot();
+			else if (args[i].equals("-profile"))
+				f.profile();
+			else if (args[i].equals("-record") && i + 1 < args.length)
+				recording = args[++i];
+		}
+		
+		/* Recording starts once the other flags are applied: it wraps whichever
+		 * keyboard plays, possibly the autopilot, and writes the game mode to
+		 * the header so that ReplayMain plays the same one */
+		if (recording != null)
+			f.record(recording);
+		
 		f.run();
 	}
 }
\ No newline at end of file
@@ -25,16 +25,20 @@
 
 package frogger;
 
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+
+import jig.engine.RenderingContext;
 import jig.engine.physics.Body;
 import jig.engine.util.Vector2D;
 
-import java.util.LinkedList;
-import java.util.List;
-
 /**
  * Abstract class for moving entities in the game
  * 
- * They all have update, sync methods and underlining collision spheres
+ * They all have update, sync methods and a collision shape along their row:
+ * intervals of the x-axis, one every STEP_SIZE pixels. Nothing but Frogger
+ * ever changes rows, so that's all collision detection needs. Frogger
+ * itself keeps a collision sphere that hops ahead of its sprite.
  * 
  * @author vitaliy
  *
@@ -43,17 +47,237 @@ public abstract class MovingEntity extends Body {
 	
 	static final int STEP_SIZE = 32;
 	
-	// List that holds collision spheres
-	protected List<CollisionObject> collisionObjects;
+	// Half widths of the collision intervals, what the 30x30 "col" and 4x4 
+	// "colSmall" collision spheres used to be
+	static final double WIDE = 15;
+	static final double NARROW = 2;
+	
+	// Collision shape, hitCount intervals centered every STEP_SIZE pixels 
+	// from STEP_SIZE/2 past x, each reaching hitRadius to either side
+	private int hitCount = 0;
+	private double hitRadius = 0;
+	
+	// Position is kept in primitives so that moving around doesn't allocate,
+	// the position vector is only rebuilt when somebody asks for it
+	protected double x;
+	protected double y;
 	
+	// x before the last update(), for swept collision tests
+	private double previousX;
+	
+	// Lane moving this entity instead of update(), x is laneX at lane time laneMs
+	private TrafficLane lane = null;
+	private double laneX;
+	private long laneMs;
+	private long locatedMs;
 	
 	public MovingEntity (String name) {
 		super(name);
-		collisionObjects = new LinkedList<CollisionObject>();
 	}
-
-	public List<CollisionObject> getCollisionObjects() {
-		return collisionObjects;
+	
+	public double getX() {
+		locate();
+		return x;
+	}
+	
+	/**
+	 * @param n - number of intervals
+	 * @param radius - half width of each, WIDE or NARROW
+	 */
+	protected void setShape(int n, double radius) {
+		hitCount = n;
+		hitRadius = radius;
+	}
+	
+	public int getHitCount() {
+		return hitCount;
+	}
+	
+	public double getHitRadius() {
+		return hitRadius;
+	}
+	
+	/**
+	 * @param i - interval of the collision shape
+	 * @return center of the interval on the x-axis
+	 */
+	public double getHitCenter(int i) {
+		return getX() + STEP_SIZE/2 + STEP_SIZE*i;
+	}
+	
+	/**
+	 * Overlap test against a circle, such as Frogger's collision sphere
+	 * 
+	 * Intervals lie on the center line of the entity's row. A circle 
+	 * that's off the line by dy overlaps an interval if it comes closer
+	 * than sqrt((radius + hitRadius)^2 - dy^2) along the x-axis.
+	 * 
+	 * A swept test takes the whole way the entity went in its last update,
+	 * from getPreviousX() to getX(), so that however long the tick was
+	 * nothing fast jumps clean over the circle.
+	 * 
+	 * @param cx - center of the circle
+	 * @param cy
+	 * @param radius
+	 * @param swept
+	 * @return leftmost interval of the shape it overlaps, -1 if none
+	 */
+	public int hit(double cx, double cy, double radius, boolean swept) {
+		double dy = cy - (y + STEP_SIZE/2);
+		double r2 = (radius + hitRadius) * (radius + hitRadius);
+		if (dy*dy >= r2)
+			return -1;
+		
+		double c1 = getX() + STEP_SIZE/2;
+		double c0 = swept ? getPreviousX() + STEP_SIZE/2 : c1;
+		double lo = Math.min(c0, c1);
+		double hi = Math.max(c0, c1);
+		for (int i = 0; i < hitCount; i++) {
+			// distance to the nearest point the interval's center went through
+			double dx = 0;
+			if (cx < lo + STEP_SIZE*i)
+				dx = lo + STEP_SIZE*i - cx;
+			else if (cx > hi + STEP_SIZE*i)
+				dx = cx - (hi + STEP_SIZE*i);
+			
+			if (dx*dx + dy*dy < r2)
+				return i;
+		}
+		return -1;
+	}
+	
+	/**
+	 * @return x before the last update, or getX() if the entity was put
+	 * where it is since
+	 */
+	public double getPreviousX() {
+		if (lane == null)
+			return previousX;
+		
+		long ms = Math.min(lane.getDeltaMs(), lane.getTime() - laneMs);
+		return laneX + velocity.getX()*(lane.getTime() - ms - laneMs);
+	}
+	
+	public double getY() {
+		return y;
+	}
+	
+	public double getCenterX() {
+		locate();
+		return x + width/2.0;
+	}
+	
+	public double getCenterY() {
+		return y + height/2.0;
+	}
+	
+	public void setPosition(double px, double py) {
+		x = px;
+		y = py;
+		previousX = px;
+		if (lane != null)
+			join(lane);
+	}
+	
+	public void setPosition(Vector2D p) {
+		setPosition(p.getX(), p.getY());
+		position = p;
+	}
+	
+	/**
+	 * Read-only view of x, y, a new vector is built only if the entity moved
+	 * since the last call
+	 */
+	public Vector2D getPosition() {
+		locate();
+		if (position == null || position.getX() != x || position.getY() != y)
+			position = new Vector2D(x, y);
+		return position;
+	}
+	
+	public void setCenterPosition(Vector2D c) {
+		setPosition(c.getX() - width/2.0, c.getY() - height/2.0);
+	}
+	
+	public Vector2D getCenterPosition() {
+		return new Vector2D(getCenterX(), getCenterY());
+	}
+	
+	public void render(RenderingContext rc) {
+		getPosition();
+		super.render(rc);
+	}
+	
+	/**
+	 * Draw the visible frame into an offscreen image, e.g. a SceneCache freeze frame
+	 * 
+	 * @param g
+	 * @param at - scratch transform, overwritten
+	 */
+	public void draw(Graphics2D g, AffineTransform at) {
+		if (!active)
+			return;
+		locate();
+		at.setToTranslation(x, y);
+		frames.get(visibleFrame).draw(g, at);
+	}
+	
+	/**
+	 * Put a recycled entity back into play at a new position and velocity
+	 * 
+	 * @param pos
+	 * @param v
+	 */
+	public void reset(Vector2D pos, Vector2D v) {
+		lane = null;
+		setPosition(pos);
+		velocity = v;
+		setActivation(true);
+		sync(x, y);
+	}
+	
+	/**
+	 * Move down along with the rest of the world, see EndlessLanes
+	 * @param dy
+	 */
+	public void scroll(double dy) {
+		locate();
+		y += dy;
+		sync(x, y);
+	}
+	
+	/**
+	 * Let a lane move this entity from its current position on, see TrafficLane
+	 * @param l
+	 */
+	void join(TrafficLane l) {
+		lane = l;
+		laneX = x;
+		laneMs = l.getTime();
+		locatedMs = laneMs;
+	}
+	
+	/**
+	 * Move on its own again, from wherever the lane took it
+	 */
+	void leave() {
+		locate();
+		previousX = getPreviousX();
+		lane = null;
+	}
+	
+	public boolean isInLane() {
+		return lane != null;
+	}
+	
+	/**
+	 * Catch x up with the lane's clock
+	 */
+	private void locate() {
+		if (lane == null || lane.getTime() == locatedMs)
+			return;
+		locatedMs = lane.getTime();
+		x = laneX + velocity.getX()*(locatedMs - laneMs);
 	}
 	
 	/**
@@ -62,13 +286,17 @@ public abstract class MovingEntity extends Body {
 	 * @param position
 	 */
 	public void sync(Vector2D position) {
-		int i = 0;
-		for (CollisionObject a : collisionObjects) {
-			Vector2D deltaPos = new Vector2D(position.getX()+(STEP_SIZE*i), position.getY());
-			a.setPosition(deltaPos);
-			i++;
-		}
-		    
+		sync(position.getX(), position.getY());
+	}
+	
+	/**
+	 * Updates the collision spheres with new position, only Frogger has
+	 * one, everything else is tested by its hit shape
+	 * 
+	 * @param px
+	 * @param py
+	 */
+	public void sync(double px, double py) {
 	}
 	
 	/**
@@ -80,12 +308,69 @@ public abstract class MovingEntity extends Body {
 	 * in y-axis
 	 */
 	public void update(final long deltaMs) {
-		if (position.getX() > Main.WORLD_WIDTH+width || position.getX() < -(32*4))
+		if (isOutOfPlay(x))
 			setActivation(false);
 			
-	    position = new Vector2D(
-	    		position.getX()+velocity.getX()*deltaMs,
-	    		position.getY()+velocity.getY()*deltaMs);
-	    sync(position);
+		previousX = x;
+	    x += velocity.getX()*deltaMs;
+	    y += velocity.getY()*deltaMs;
+	    sync(x, y);
+	    animate(deltaMs);
+	}
+	
+	/**
+	 * Tick sprite animations and the like, update() and TrafficLane call it
+	 * @param deltaMs
+	 */
+	public void animate(long deltaMs) {
+	}
+	
+	/**
+	 * @return true if animate() does anything, TrafficLane skips the others
+	 */
+	public boolean isAnimated() {
+		return false;
+	}
+	
+	/**
+	 * Fast forward, same as calling update(stepMs) ms/stepMs times
+	 * 
+	 * Used to place traffic at level start without simulating it.
+	 * Subclasses with timers of their own advance those as well.
+	 * 
+	 * @param ms
+	 * @param stepMs
+	 */
+	public void advance(long ms, long stepMs) {
+		long n = ms / stepMs;
+		if (n == 0)
+			return;
+		
+		// Adding up the steps, rather than multiplying, keeps the 
+		// position bit for bit the same as update() would
+		double vx = velocity.getX()*stepMs;
+		double vy = velocity.getY()*stepMs;
+		for (long i = 1; i < n; i++) {
+			x += vx;
+			y += vy;
+		}
+		
+		// update() tests the position before moving and entities only
+		// move one way, so testing the position before the last step will do
+		if (isOutOfPlay(x))
+			setActivation(false);
+		
+		previousX = x;
+		x += vx;
+		y += vy;
+		sync(x, y);
+	}
+	
+	boolean isOutOfPlay() {
+		return isOutOfPlay(getX());
+	}
+	
+	private boolean isOutOfPlay(double px) {
+		return px > Main.WORLD_WIDTH+width || px < -(32*4);
 	}
 }
\ No newline at end of file
@@ -26,8 +26,6 @@
 package frogger;
 import jig.engine.util.Vector2D;
 
-import java.util.Random;
-
 public class MovingEntityFactory {
 	
 	public static int  CAR   = 0;
@@ -38,7 +36,12 @@ public class MovingEntityFactory {
 	public Vector2D position;
 	public Vector2D velocity;
 	
-	public Random r;
+	public GameRandom r;
+	
+	// Recycled entities are re-emitted from here
+	private MovingEntityPool pool;
+	
+	private Vector2D copCarVelocity;
 	
 	private long updateMs = 0;
 	private long copCarDelay = 0;
@@ -50,16 +53,29 @@ public class MovingEntityFactory {
 	private int[] creationRate = new int[4];	
 	
 	/**
-	 * Moving Entity factory
+	 * Moving Entity factory with its own entity pool
 	 * 
 	 * @param pos
 	 * @param v
-	 * @param rate
 	 */
 	public MovingEntityFactory(Vector2D pos, Vector2D v) {
+		this(pos, v, new MovingEntityPool(), new GameRandom(System.currentTimeMillis()));
+	}
+	
+	/**
+	 * Moving Entity factory
+	 * 
+	 * @param pos
+	 * @param v
+	 * @param p - pool to take recycled entities from
+	 * @param rnd - decides what is built and when
+	 */
+	public MovingEntityFactory(Vector2D pos, Vector2D v, MovingEntityPool p, GameRandom rnd) {
 		position = pos;
 		velocity = v;
-		r = new Random(System.currentTimeMillis());
+		pool = p;
+		copCarVelocity = velocity.scale(5);
+		r = rnd;
 
 		creationRate[CAR]   = (int) Math.round(((Car.LENGTH) + padding + 32) / 
 				Math.abs(velocity.getX()));
@@ -79,36 +95,60 @@ public class MovingEntityFactory {
 	 * chance gives some holes in the production pattern, looks better.
 	 */
 	public MovingEntity buildBasicObject(int type, int chance) {
+		if (isDue(chance))
+			switch(type) {
+				case 0: // CAR
+					rateMs = creationRate[CAR];
+					return pool.car(position, velocity, r.nextInt(Car.TYPES));
+				case 1: // TRUCK
+					rateMs = creationRate[TRUCK];
+					return pool.truck(position, velocity);
+				case 2: // SLOG
+					rateMs = creationRate[SLOG];
+					return pool.shortLog(position, velocity);
+				case 3: // LLOG
+					rateMs = creationRate[LLOG];
+					return pool.longLog(position, velocity);
+				default:
+					return null;
+			}
+		
+		return null;
+	}
+	
+	/**
+	 * Whether something is built now, decided before asking the pool for it
+	 * so that the pool only counts requests it actually serves
+	 * 
+	 * @param chance - of production (n out of 100)
+	 * @return true if the lane is clear and the chance came up
+	 */
+	private boolean isDue(int chance) {
 		if (updateMs > rateMs) {
 			updateMs = 0;
-			
-			if (r.nextInt(100) < chance)			
-				switch(type) {
-					case 0: // CAR
-						rateMs = creationRate[CAR];
-						return new Car(position, velocity, r.nextInt(Car.TYPES));
-					case 1: // TRUCK
-						rateMs = creationRate[TRUCK];
-						return new Truck(position, velocity);
-					case 2: // SLOG
-						rateMs = creationRate[SLOG];
-						return new ShortLog(position, velocity);
-					case 3: // LLOG
-						rateMs = creationRate[LLOG];
-						return new LongLog(position, velocity);
-					default:
-						return null;
-				}
+			return r.nextInt(100) < chance;
 		}
-		
-		return null;
+		return false;
 	}
 	
 	public MovingEntity buildShortLogWithTurtles(int chance) {
-		MovingEntity m = buildBasicObject(SLOG,80);
-		if (m != null && r.nextInt(100) < chance)
-			return new Turtles(position, velocity, r.nextInt(2));
-		return m;
+		return buildShortLogWithTurtles(80, chance);
+	}
+	
+	/**
+	 * Short Tree Logs, some of them turtles
+	 * @param logChance - of building anything, see buildBasicObject
+	 * @param chance - of turtles instead of the log
+	 * @return
+	 */
+	public MovingEntity buildShortLogWithTurtles(int logChance, int chance) {
+		if (!isDue(logChance))
+			return null;
+		
+		rateMs = creationRate[SLOG];
+		if (r.nextInt(100) < chance)
+			return pool.turtles(position, velocity, r.nextInt(2));
+		return pool.shortLog(position, velocity);
 	}
 	
 	/**
@@ -116,10 +156,22 @@ public class MovingEntityFactory {
 	 * @return
 	 */
 	public MovingEntity buildLongLogWithCrocodile(int chance) {
-		MovingEntity m = buildBasicObject(LLOG,80);
-		if (m != null && r.nextInt(100) < chance)
-			return new Crocodile(position, velocity);
-		return m;
+		return buildLongLogWithCrocodile(80, chance);
+	}
+	
+	/**
+	 * @param logChance - of building anything, see buildBasicObject
+	 * @param chance - of a Crocodile instead of the log
+	 * @return
+	 */
+	public MovingEntity buildLongLogWithCrocodile(int logChance, int chance) {
+		if (!isDue(logChance))
+			return null;
+		
+		rateMs = creationRate[LLOG];
+		if (r.nextInt(100) < chance)
+			return pool.crocodile(position, velocity);
+		return pool.longLog(position, velocity);
 	}
 
 	/**
@@ -128,22 +180,36 @@ public class MovingEntityFactory {
 	 * @return
 	 */
 	public MovingEntity buildVehicle() {
+		return buildVehicle(50, 20);
+	}
+	
+	/**
+	 * @param chance - of building anything, see buildBasicObject
+	 * @param truckChance - of a truck instead of a car
+	 * @return
+	 */
+	public MovingEntity buildVehicle(int chance, int truckChance) {
 		
 		// Build slightly more cars that trucks
-		MovingEntity m = r.nextInt(100) < 80 ? buildBasicObject(CAR,50) : buildBasicObject(TRUCK,50);
-
-		if (m != null) {
-			
-			/* If the road line is clear, that is there are no cars or truck on it
-			 * then send in a high speed cop car
-			 */
-			if (Math.abs(velocity.getX()*copCarDelay) > Main.WORLD_WIDTH) {
-				copCarDelay = 0;
-				return new CopCar(position, velocity.scale(5));
-			}
+		int type = r.nextInt(100) < 100 - truckChance ? CAR : TRUCK;
+		if (!isDue(chance))
+			return null;
+		
+		rateMs = creationRate[type];
+		int randId = type == CAR ? r.nextInt(Car.TYPES) : 0;
+		
+		/* If the road line is clear, that is there are no cars or truck on it
+		 * then send in a high speed cop car
+		 */
+		if (Math.abs(velocity.getX()*copCarDelay) > Main.WORLD_WIDTH) {
 			copCarDelay = 0;
+			return pool.copCar(position, copCarVelocity);
 		}
-		return m;
+		copCarDelay = 0;
+		
+		if (type == CAR)
+			return pool.car(position, velocity, randId);
+		return pool.truck(position, velocity);
 	}
 	
 	public void update(final long deltaMs) {
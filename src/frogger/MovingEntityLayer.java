@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jig.engine.physics.AbstractBodyLayer;
+
+/**
+ * Body layer of moving entities that can drop the ones out of play
+ * 
+ * jig's layers only ever grow, entities that went inactive would 
+ * otherwise be updated and iterated over until the level ends.
+ * 
+ * Entities in a TrafficLane are moved by their lane, update() only
+ * goes over the ones moving on their own such as goals and cop cars.
+ * 
+ * @author vitaliy
+ *
+ */
+public class MovingEntityLayer extends AbstractBodyLayer.IterativeUpdate<MovingEntity> {
+	
+	// Members that aren't in a TrafficLane
+	private List<MovingEntity> free = new ArrayList<MovingEntity>();
+	
+	// Members of free that went inactive in update()
+	private int dropped = 0;
+	
+	public void add(MovingEntity m) {
+		super.add(m);
+		if (!m.isInLane())
+			free.add(m);
+	}
+	
+	/**
+	 * Update the members moving on their own
+	 */
+	public void update(long deltaMs) {
+		for (int i = 0; i < free.size(); i++) {
+			MovingEntity m = free.get(i);
+			m.update(deltaMs);
+			if (!m.isActive())
+				dropped++;
+		}
+	}
+	
+	/**
+	 * @return true if update() deactivated any member since the last removeInactive()
+	 */
+	public boolean hasDropped() {
+		return dropped > 0;
+	}
+	
+	/**
+	 * Remove inactive entities, keeping the order of the others
+	 * 
+	 * @param pool - gets the removed entities, may be null
+	 */
+	public void removeInactive(MovingEntityPool pool) {
+		int n = 0;
+		for (int i = 0; i < members.size(); i++) {
+			MovingEntity m = members.get(i);
+			if (m.isActive())
+				members.set(n++, m);
+			else if (pool != null)
+				pool.release(m);
+		}
+		for (int i = members.size() - 1; i >= n; i--)
+			members.remove(i);
+		
+		n = 0;
+		for (int i = 0; i < free.size(); i++) {
+			MovingEntity m = free.get(i);
+			if (m.isActive())
+				free.set(n++, m);
+		}
+		for (int i = free.size() - 1; i >= n; i--)
+			free.remove(i);
+		dropped = 0;
+	}
+	
+	/**
+	 * Remove all entities
+	 * 
+	 * @param pool - gets the removed entities, may be null
+	 */
+	public void clear(MovingEntityPool pool) {
+		if (pool != null)
+			for (int i = 0; i < members.size(); i++)
+				pool.release(members.get(i));
+		clear();
+	}
+	
+	public void clear() {
+		super.clear();
+		free.clear();
+		dropped = 0;
+	}
+}
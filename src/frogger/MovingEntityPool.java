@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jig.engine.util.Vector2D;
+
+/**
+ * Recycles cars, trucks, logs, turtles and crocodiles
+ * 
+ * Entities that went inactive are released back here, MovingEntityFactory
+ * then resets and re-emits them instead of building new ones. Every game
+ * world has one pool, shared by all of its lanes, so it survives level changes.
+ * 
+ * @author vitaliy
+ *
+ */
+public class MovingEntityPool {
+	
+	private List<Car> cars = new ArrayList<Car>();
+	private List<CopCar> copCars = new ArrayList<CopCar>();
+	private List<Truck> trucks = new ArrayList<Truck>();
+	private List<ShortLog> shortLogs = new ArrayList<ShortLog>();
+	private List<LongLog> longLogs = new ArrayList<LongLog>();
+	private List<Turtles> turtles = new ArrayList<Turtles>();
+	private List<Crocodile> crocodiles = new ArrayList<Crocodile>();
+	
+	// Pool statistics
+	private long requests = 0;
+	private long hits = 0;
+	
+	public Car car(Vector2D pos, Vector2D v, int randId) {
+		requests++;
+		if (cars.isEmpty())
+			return new Car(pos, v, randId);
+		hits++;
+		Car m = cars.remove(cars.size()-1);
+		m.reset(pos, v, randId);
+		return m;
+	}
+	
+	public CopCar copCar(Vector2D pos, Vector2D v) {
+		requests++;
+		if (copCars.isEmpty())
+			return new CopCar(pos, v);
+		hits++;
+		CopCar m = copCars.remove(copCars.size()-1);
+		m.reset(pos, v);
+		return m;
+	}
+	
+	public Truck truck(Vector2D pos, Vector2D v) {
+		requests++;
+		if (trucks.isEmpty())
+			return new Truck(pos, v);
+		hits++;
+		Truck m = trucks.remove(trucks.size()-1);
+		m.reset(pos, v);
+		return m;
+	}
+	
+	public ShortLog shortLog(Vector2D pos, Vector2D v) {
+		requests++;
+		if (shortLogs.isEmpty())
+			return new ShortLog(pos, v);
+		hits++;
+		ShortLog m = shortLogs.remove(shortLogs.size()-1);
+		m.reset(pos, v);
+		return m;
+	}
+	
+	public LongLog longLog(Vector2D pos, Vector2D v) {
+		requests++;
+		if (longLogs.isEmpty())
+			return new LongLog(pos, v);
+		hits++;
+		LongLog m = longLogs.remove(longLogs.size()-1);
+		m.reset(pos, v);
+		return m;
+	}
+	
+	public Turtles turtles(Vector2D pos, Vector2D v, int water) {
+		requests++;
+		if (turtles.isEmpty())
+			return new Turtles(pos, v, water);
+		hits++;
+		Turtles m = turtles.remove(turtles.size()-1);
+		m.reset(pos, v, water);
+		return m;
+	}
+	
+	public Crocodile crocodile(Vector2D pos, Vector2D v) {
+		requests++;
+		if (crocodiles.isEmpty())
+			return new Crocodile(pos, v);
+		hits++;
+		Crocodile m = crocodiles.remove(crocodiles.size()-1);
+		m.reset(pos, v);
+		return m;
+	}
+	
+	/**
+	 * Take back an entity that is out of play
+	 * 
+	 * The caller must make sure nothing references it anymore. 
+	 * Entities that aren't pooled, like goals, are ignored.
+	 * 
+	 * @param m
+	 */
+	public void release(MovingEntity m) {
+		if (m instanceof Car)
+			cars.add((Car) m);
+		else if (m instanceof CopCar)
+			copCars.add((CopCar) m);
+		else if (m instanceof Truck)
+			trucks.add((Truck) m);
+		else if (m instanceof ShortLog)
+			shortLogs.add((ShortLog) m);
+		else if (m instanceof LongLog)
+			longLogs.add((LongLog) m);
+		else if (m instanceof Turtles)
+			turtles.add((Turtles) m);
+		else if (m instanceof Crocodile)
+			crocodiles.add((Crocodile) m);
+	}
+	
+	/**
+	 * @return number of entities requested from the pool
+	 */
+	public long getRequests() {
+		return requests;
+	}
+	
+	/**
+	 * @return number of requests served with a recycled entity
+	 */
+	public long getHits() {
+		return hits;
+	}
+	
+	/**
+	 * @return fraction of requests served with a recycled entity
+	 */
+	public double getHitRate() {
+		if (requests == 0)
+			return 0;
+		return (double) hits / requests;
+	}
+	
+	/**
+	 * @return number of entities waiting to be recycled
+	 */
+	public int getIdle() {
+		return cars.size() + copCars.size() + trucks.size() + shortLogs.size() 
+			+ longLogs.size() + turtles.size() + crocodiles.size();
+	}
+	
+	public String toString() {
+		return "requests: " + requests + ", hits: " + hits 
+			+ ", hit rate: " + getHitRate() + ", idle: " + getIdle();
+	}
+}
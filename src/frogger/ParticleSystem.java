@@ -0,0 +1,188 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.awt.geom.AffineTransform;
+
+import jig.engine.ImageResource;
+import jig.engine.RenderingContext;
+import jig.engine.ResourceFactory;
+import jig.engine.ViewableLayer;
+
+/**
+ * Tiny weather particles (wind dots, heat wave smoke)
+ * 
+ * Particles are kept in primitive arrays of fixed capacity and written
+ * in ring order, so when the system is full the oldest particle is
+ * overwritten. Nothing is allocated after construction.
+ * 
+ * @author vitaliy
+ *
+ */
+public class ParticleSystem implements ViewableLayer {
+	
+	final static int WIND  = 0;
+	final static int SMOKE = 1;
+	
+	final static int DEFAULT_CAPACITY = 1024;
+	
+	private final ImageResource[] sprite = new ImageResource[2];
+	
+	private final int capacity;
+	
+	private final double[] x;
+	private final double[] y;
+	private final double[] vx;
+	private final double[] vy;
+	
+	// Expiration timer in milliseconds, 0 lives until it leaves the screen
+	private final int[] timeAlive;
+	private final int[] timeExpire;
+	
+	private final byte[] type;
+	private final boolean[] alive;
+	
+	private int next = 0;
+	private int count = 0;
+	
+	private final AffineTransform at = new AffineTransform();
+	
+	public ParticleSystem() {
+		this(DEFAULT_CAPACITY);
+	}
+	
+	public ParticleSystem(int cap) {
+		sprite[WIND] = ResourceFactory.getFactory().getFrames(
+				Main.SPRITE_SHEET + "#white_dot").get(0);
+		sprite[SMOKE] = ResourceFactory.getFactory().getFrames(
+				Main.SPRITE_SHEET + "#smoke_cloud").get(0);
+		
+		capacity = cap;
+		x = new double[cap];
+		y = new double[cap];
+		vx = new double[cap];
+		vy = new double[cap];
+		timeAlive = new int[cap];
+		timeExpire = new int[cap];
+		type = new byte[cap];
+		alive = new boolean[cap];
+	}
+	
+	/**
+	 * Emit a particle
+	 * 
+	 * @param t - WIND or SMOKE
+	 * @param px, py - position
+	 * @param pvx, pvy - velocity
+	 * @param te - expiration timer in milliseconds, 0 for none
+	 */
+	public void spawn(int t, double px, double py, double pvx, double pvy, int te) {
+		int i = next;
+		
+		if (!alive[i])
+			count++;
+		
+		x[i] = px;
+		y[i] = py;
+		vx[i] = pvx;
+		vy[i] = pvy;
+		timeAlive[i] = 1;
+		timeExpire[i] = te;
+		type[i] = (byte) t;
+		alive[i] = true;
+		
+		next = (i + 1 == capacity) ? 0 : i + 1;
+	}
+	
+	/**
+	 * Move all particles, drop those that left the screen or expired
+	 */
+	public void update(final long deltaMs) {
+		if (count == 0)
+			return;
+		
+		for (int i = 0; i < capacity; i++) {
+			if (!alive[i])
+				continue;
+			
+			if (x[i] > Main.WORLD_WIDTH + sprite[type[i]].getWidth() || x[i] < -128) {
+				alive[i] = false;
+				count--;
+				continue;
+			}
+			
+			x[i] += vx[i] * deltaMs;
+			y[i] += vy[i] * deltaMs;
+			
+			if (timeExpire[i] != 0) {
+				timeAlive[i] += deltaMs;
+				if (timeAlive[i] > timeExpire[i]) {
+					alive[i] = false;
+					count--;
+				}
+			}
+		}
+	}
+	
+	public void render(RenderingContext rc) {
+		if (count == 0)
+			return;
+		
+		for (int i = 0; i < capacity; i++) {
+			if (!alive[i])
+				continue;
+			
+			at.setToTranslation(x[i], y[i]);
+			sprite[type[i]].render(rc, at);
+		}
+	}
+	
+	public void clear() {
+		for (int i = 0; i < capacity; i++)
+			alive[i] = false;
+		count = 0;
+		next = 0;
+	}
+	
+	/**
+	 * @return number of live particles
+	 */
+	public int size() {
+		return count;
+	}
+	
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public boolean isActive() {
+		return true;
+	}
+
+	public void setActivation(boolean a) {
+		// always on, clear() drops the particles
+	}
+}
@@ -0,0 +1,451 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Plans Frogger's next move by a search over (row, column, time)
+ * 
+ * Every entity keeps its velocity until it leaves the screen, so where
+ * the cars, logs and turtles will be is known ahead. plan() first collects
+ * their collision intervals into a hazard table. Then it runs an A* search
+ * where each step is one hop (or one hop's worth of waiting) and the 
+ * heuristic is the number of rows left. A step's map of the x positions 
+ * where a frog would survive is filled from the table when the search
+ * first gets to the step, and only for the rows it can reach by then.
+ * On the river the frog drifts with its row, like Frogger.follow does.
+ * The first move of the earliest path to an open goal is returned. When
+ * no goal is found within the horizon or the node budget, the move that
+ * survives longest and gets furthest up the screen is returned instead.
+ * 
+ * Entities spawned after planning are not foreseen, the plan is simply
+ * made again before every hop. Nothing is allocated per plan.
+ * 
+ * @author vitaliy
+ *
+ */
+public class PathPlanner {
+	
+	public static final int NONE  = 0;
+	public static final int UP    = 1;
+	public static final int DOWN  = 2;
+	public static final int LEFT  = 3;
+	public static final int RIGHT = 4;
+	
+	private static final int[] DROW = {0, -1, 1, 0, 0};
+	private static final int[] DCOL = {0, 0, 0, -1, 1};
+	
+	static final int ROWS = Main.WORLD_HEIGHT / LaneIndex.ROW_HEIGHT;
+	
+	// Frog center x positions are bucketed in bins of BIN pixels
+	static final int BIN  = 4;
+	static final int BINS = Main.WORLD_WIDTH / BIN + 1;
+	
+	// Search nodes closer than this many bins at the same step are merged
+	static final int MERGE = 2;
+	
+	// Planning horizon in hops
+	static final int HORIZON = 24;
+	
+	// Search nodes per plan, bounds the planning time
+	static final int MAX_NODES = 2048;
+	
+	// Extra distance kept from the edge of any collision interval, in pixels
+	static final double MARGIN = 2;
+	
+	// Turtles must stay afloat this long after the frog lands on them
+	static final long TURTLE_MARGIN_MS = 200;
+	
+	static final int GOAL_ROW = 1;
+	
+	private FroggerWorld world;
+	private long stepMs;
+	private long deltaMs;
+	
+	// Row the frog plans from, at step k it can be at most k rows away
+	private int startRow;
+	
+	/* Hazard table, one entry per collision interval, by row. An entry 
+	 * covers x positions of the frog within reach of the interval's center,
+	 * x + v*t - shift after t ms, and makes them safe or deadly. Platforms
+	 * come before the hazards of their row, which take precedence. */
+	private int hazards;
+	private final int[] rowStart = new int[ROWS + 1];
+	private int[] hzRow = new int[256];
+	private Turtles[] hzTurtles = new Turtles[256];
+	private double[] hzX = new double[256];
+	private double[] hzV = new double[256];
+	private double[] hzShift = new double[256];
+	private double[] hzReach = new double[256];
+	private boolean[] hzSafe = new boolean[256];
+	
+	// Steps whose safety maps are filled in this plan
+	private int marked;
+	
+	/* safe[k][row*BINS + bin] - frog centered in the bin lives after k steps.
+	 * Checking the end of each step only is enough, nothing moves half 
+	 * a collision range during one hop. Only rows within k of startRow
+	 * are up to date, see markSafe(). */
+	private final boolean[][] safe = new boolean[HORIZON + 1][ROWS * BINS];
+	private final boolean[] goal = new boolean[BINS];
+	
+	// River rows carry the frog along with their logs and turtles
+	private final boolean[] river = new boolean[ROWS];
+	private final double[] rowV = new double[ROWS];
+	
+	// Push of a wind gust, on any row
+	private double windV;
+	
+	// Search nodes
+	private final int[] nodeRow = new int[MAX_NODES];
+	private final double[] nodeX = new double[MAX_NODES];
+	private final int[] nodeStep = new int[MAX_NODES];
+	private final int[] nodeFirst = new int[MAX_NODES];
+	private final int[] nodeNext = new int[MAX_NODES];
+	private int nodes;
+	
+	// Open nodes by steps + rows left, each bucket is a stack
+	private final int[] bucket = new int[HORIZON + ROWS + 1];
+	
+	// Cells already visited at each step
+	private final int[][] seen = new int[HORIZON + 1][ROWS * (BINS / MERGE + 1)];
+	private int stamp = 0;
+	
+	public PathPlanner(FroggerWorld w) {
+		world = w;
+	}
+	
+	/**
+	 * Time Frogger needs for one hop, from the key press to accepting the next one
+	 * 
+	 * The hop animation advances at most one frame per update and waits 
+	 * more than 10 ms between frames.
+	 * 
+	 * @param deltaMs - game update period
+	 */
+	static long hopMs(long deltaMs) {
+		long ticksPerFrame = 10 / deltaMs + 1;
+		return (8 * ticksPerFrame + 2) * deltaMs;
+	}
+	
+	/**
+	 * Pick Frogger's next move, call while the frog stands still
+	 * 
+	 * @param deltaMs - game update period
+	 * @return NONE, UP, DOWN, LEFT or RIGHT
+	 */
+	public int plan(long deltaMs) {
+		this.deltaMs = deltaMs;
+		stepMs = hopMs(deltaMs);
+		collect(deltaMs);
+		marked = 0;
+		
+		stamp++;
+		nodes = 0;
+		for (int f = 0; f < bucket.length; f++)
+			bucket[f] = -1;
+		
+		startRow = LaneIndex.rowOf(world.frog.getY());
+		push(startRow, world.frog.getX(), 0, NONE);
+		
+		int best = 0;
+		
+		for (int f = 0; f < bucket.length; f++) {
+			while (bucket[f] >= 0) {
+				int n = bucket[f];
+				bucket[f] = nodeNext[n];
+				
+				// Whatever survives longest is the fallback plan
+				if (nodeStep[n] > nodeStep[best] || 
+						nodeStep[n] == nodeStep[best] && nodeRow[n] < nodeRow[best])
+					best = n;
+				
+				if (nodeStep[n] == HORIZON)
+					continue;
+				
+				int found = expand(n);
+				if (found >= 0)
+					return found;
+				
+				if (nodes == MAX_NODES)
+					return nodeFirst[best];
+			}
+		}
+		
+		return nodeFirst[best];
+	}
+	
+	/**
+	 * Add the safe successors of node n to the open buckets
+	 * @return first move of the path if a goal was reached, otherwise -1
+	 */
+	private int expand(int n) {
+		int row = nodeRow[n];
+		double x = nodeX[n];
+		int k = nodeStep[n] + 1;
+		markSafe(k);
+		
+		for (int a = 0; a < 5; a++) {
+			int r = row + DROW[a];
+			if (r < GOAL_ROW || !canMove(a, row, x))
+				continue;
+			
+			double nx = x + DCOL[a] * Frogger.MOVE_STEP;
+			
+			/* Frogger's sphere jumps to the landing spot when the hop starts
+			 * and stays there until the hop is over, only then does it catch 
+			 * up with the drift. Both spots must be safe. */
+			if (a != NONE && r > GOAL_ROW) {
+				int landing = bin(nx + 16);
+				if (landing < 0 || !safe[k][r*BINS + landing])
+					continue;
+			}
+			
+			if (windV != 0 && a != NONE && river[row] && river[r]) {
+				/* A gust re-syncs the sphere with the hop animation, so the
+				 * frog rides the row it leaves for the first half of the hop */
+				nx += (rowV[row] + rowV[r]) / 2 * stepMs;
+			} else if (river[r]) {
+				nx += rowV[r] * stepMs;
+			}
+			nx += windV * stepMs;
+			
+			int b = bin(nx + 16);
+			if (b < 0)
+				continue;
+			
+			int first = (k == 1) ? a : nodeFirst[n];
+			
+			if (r == GOAL_ROW) {
+				if (goal[b])
+					return first;
+				continue;
+			}
+			
+			if (!safe[k][r*BINS + b])
+				continue;
+			
+			int cell = r*(BINS / MERGE + 1) + b / MERGE;
+			if (seen[k][cell] == stamp)
+				continue;
+			seen[k][cell] = stamp;
+			
+			if (nodes == MAX_NODES)
+				break;
+			push(r, nx, k, first);
+		}
+		return -1;
+	}
+	
+	private void push(int row, double x, int k, int first) {
+		int n = nodes++;
+		nodeRow[n] = row;
+		nodeX[n] = x;
+		nodeStep[n] = k;
+		nodeFirst[n] = first;
+		
+		int f = k + row - GOAL_ROW;
+		nodeNext[n] = bucket[f];
+		bucket[f] = n;
+	}
+	
+	/**
+	 * Same checks as Frogger.moveLeft(), moveRight() etc.
+	 */
+	private static boolean canMove(int a, int row, double x) {
+		switch (a) {
+		case UP:
+			return row > 1;
+		case DOWN:
+			return row < ROWS - 1;
+		case LEFT:
+			return x > 0;
+		case RIGHT:
+			return x + 16 + 32 < Main.WORLD_WIDTH;
+		default:
+			return true;
+		}
+	}
+	
+	/**
+	 * @param cx - frog center x
+	 * @return bin of cx, -1 off the screen
+	 */
+	private static int bin(double cx) {
+		if (cx < 0 || cx > Main.WORLD_WIDTH)
+			return -1;
+		return (int) (cx / BIN);
+	}
+	
+	/**
+	 * Collect the goals, the rows' drift and the hazard table from the 
+	 * entities' current positions and velocities
+	 */
+	private void collect(long deltaMs) {
+		double frogRadius = world.frogCol.frogSphere.getRadius();
+		
+		for (int b = 0; b < BINS; b++)
+			goal[b] = false;
+		
+		windV = world.wind.isWindy() ? WindGust.meanSpeed(world.GameLevel) : 0;
+		
+		for (int r = 0; r < ROWS; r++) {
+			river[r] = r > GOAL_ROW && world.frogCol.isRiver(r);
+			rowV[r] = 0;
+			List<MovingEntity> l = world.lanes.getRow(r);
+			for (int i = 0; i < l.size(); i++) {
+				if (l.get(i).isActive() && !(l.get(i) instanceof Goal)) {
+					rowV[r] = l.get(i).getVelocity().getX();
+					break;
+				}
+			}
+		}
+		
+		List<MovingEntity> goals = world.lanes.getRow(GOAL_ROW);
+		for (int i = 0; i < goals.size(); i++) {
+			MovingEntity m = goals.get(i);
+			if (m instanceof Goal && !((Goal) m).isReached) {
+				mark(goal, 0, m.getHitCenter(0), frogRadius + m.getHitRadius() - MARGIN, true);
+			}
+		}
+		
+		hazards = 0;
+		for (int r = 0; r < ROWS; r++) {
+			rowStart[r] = hazards;
+			if (r <= GOAL_ROW)
+				continue;
+			List<MovingEntity> l = world.lanes.getRow(r);
+			
+			// Platforms first, crocodile heads and vehicles take precedence
+			for (int i = 0; i < l.size(); i++) {
+				MovingEntity m = l.get(i);
+				if (!m.isActive() || !isPlatform(m))
+					continue;
+				
+				for (int j = 0; j < m.getHitCount(); j++) {
+					if (m instanceof Crocodile && j == ((Crocodile) m).head)
+						continue;
+					addHazard(r, m instanceof Turtles ? (Turtles) m : null, m.getHitCenter(j), 
+							m.getVelocity().getX(), 0, frogRadius + m.getHitRadius() - MARGIN, true);
+				}
+			}
+			
+			for (int i = 0; i < l.size(); i++) {
+				MovingEntity m = l.get(i);
+				if (!m.isActive() || isPlatform(m) && !(m instanceof Crocodile))
+					continue;
+				
+				// Vehicles are deadly all along the way they go in a tick,
+				// see FroggerCollisionDetection.testEntity()
+				double swept = m instanceof Crocodile ? 0 : m.getVelocity().getX() * deltaMs;
+				for (int j = 0; j < m.getHitCount(); j++) {
+					if (m instanceof Crocodile && j != ((Crocodile) m).head)
+						continue;
+					addHazard(r, null, m.getHitCenter(j), m.getVelocity().getX(), swept/2,
+							frogRadius + m.getHitRadius() + Math.abs(swept)/2 + MARGIN, false);
+				}
+			}
+		}
+		rowStart[ROWS] = hazards;
+	}
+	
+	private void addHazard(int row, Turtles turtles, double x, double v, double shift, 
+			double reach, boolean value) {
+		if (hazards == hzX.length) {
+			// only ever grows to the busiest board seen
+			int n = hazards * 2;
+			hzRow = Arrays.copyOf(hzRow, n);
+			hzTurtles = Arrays.copyOf(hzTurtles, n);
+			hzX = Arrays.copyOf(hzX, n);
+			hzV = Arrays.copyOf(hzV, n);
+			hzShift = Arrays.copyOf(hzShift, n);
+			hzReach = Arrays.copyOf(hzReach, n);
+			hzSafe = Arrays.copyOf(hzSafe, n);
+		}
+		hzRow[hazards] = row;
+		hzTurtles[hazards] = turtles;
+		hzX[hazards] = x;
+		hzV[hazards] = v;
+		hzShift[hazards] = shift;
+		hzReach[hazards] = reach;
+		hzSafe[hazards] = value;
+		hazards++;
+	}
+	
+	/**
+	 * Fill the safety maps up to step k, only the rows the frog can be on by then
+	 */
+	private void markSafe(int k) {
+		while (marked < k) {
+			int s = ++marked;
+			boolean[] map = safe[s];
+			long t = s * stepMs;
+			int r0 = Math.max(0, startRow - s);
+			int r1 = Math.min(ROWS - 1, startRow + s);
+			
+			for (int r = r0; r <= r1; r++)
+				Arrays.fill(map, r*BINS, (r+1)*BINS, !river[r] && r > GOAL_ROW);
+			
+			for (int i = rowStart[r0]; i < rowStart[r1 + 1]; i++) {
+				Turtles u = hzTurtles[i];
+				if (u != null && (u.isUnderwaterAfter(t, deltaMs) 
+						|| u.isUnderwaterAfter(t + TURTLE_MARGIN_MS, deltaMs)))
+					continue;
+				
+				double cx = hzX[i] + hzV[i] * t - hzShift[i];
+				mark(map, hzRow[i]*BINS, cx, hzReach[i], hzSafe[i]);
+			}
+		}
+	}
+	
+	private static boolean isPlatform(MovingEntity m) {
+		return m instanceof LongLog || m instanceof ShortLog 
+			|| m instanceof Turtles || m instanceof Crocodile;
+	}
+	
+	/**
+	 * Set bins entirely inside (value true) or touching (value false) the
+	 * range of frog centers within reach of an interval centered at cx
+	 */
+	private static void mark(boolean[] map, int offset, double cx, double reach, boolean value) {
+		int b0, b1;
+		if (value) {
+			b0 = (int) Math.ceil((cx - reach) / BIN);
+			b1 = (int) Math.floor((cx + reach) / BIN) - 1;
+		} else {
+			b0 = (int) Math.floor((cx - reach) / BIN);
+			b1 = (int) Math.floor((cx + reach) / BIN);
+		}
+		if (b0 < 0)
+			b0 = 0;
+		if (b1 > BINS - 1)
+			b1 = BINS - 1;
+		for (int b = b0; b <= b1; b++)
+			map[offset + b] = value;
+	}
+}
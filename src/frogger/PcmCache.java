@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Keeps decoded sounds on disk so Vorbis is decoded once, not every launch
+ * 
+ * A sound decoded by AssetLoader is written as raw SoundMixer.FORMAT samples
+ * to a .pcm file named after the sound's resource path and the SHA-1 of its
+ * source file, later launches memory-map that file. Changing the source changes the hash,
+ * the stale file is then replaced.
+ * 
+ * Cache files go to a .pcm directory next to the resources when they are 
+ * plain files, ~/.frogger/pcm when they're packed in a jar, or to the 
+ * directory in the frogger.pcmcache system property.
+ * 
+ * @author vitaliy
+ *
+ */
+public class PcmCache {
+	
+	public static final String CACHE_PROPERTY = "frogger.pcmcache";
+	
+	private static final char [] HEX = "0123456789abcdef".toCharArray();
+	
+	static final String RESOURCES = "resources/";
+	
+	// "-", 40 hex digits of SHA-1 and ".pcm" after the key
+	private static final int SUFFIX_LENGTH = 1 + 2*20 + 4;
+	
+	/**
+	 * Samples of a sound, mapped from the cache or decoded and cached
+	 * @param path - resource path, like "resources/bg_music.ogg"
+	 * @return read-only samples in SoundMixer.FORMAT
+	 */
+	public static ShortBuffer load(String path) throws IOException, UnsupportedAudioFileException {
+		URL url = AssetLoader.locate(path);
+		if (url == null)
+			throw new IOException("Can't find " + path);
+		
+		String name = key(path);
+		Path dir = directory(url);
+		Path file = dir.resolve(name + "-" + hash(path) + ".pcm");
+		
+		if (Files.isRegularFile(file))
+			return map(file);
+		
+		short [] s = AssetLoader.decode(path);
+		try {
+			write(dir, name, file, s);
+			return map(file);
+		} catch (IOException e) {
+			// e.g. read-only install, play from the heap
+			System.err.println("Can't cache " + path + ": " + e);
+			return ShortBuffer.wrap(s).asReadOnlyBuffer();
+		}
+	}
+	
+	/**
+	 * Cache file name of a sound, unique among all the resources: the path
+	 * below the resources directory, like "sfx_jump.wav" for 
+	 * "resources/sfx/jump.wav"
+	 */
+	static String key(String path) {
+		if (path.startsWith(RESOURCES))
+			path = path.substring(RESOURCES.length());
+		return path.replace('/', '_');
+	}
+	
+	private static ShortBuffer map(Path file) throws IOException {
+		FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			// The mapping stays valid after the channel is closed
+			ByteBuffer b = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+			return b.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+		} finally {
+			ch.close();
+		}
+	}
+	
+	/**
+	 * Write through a temporary file so a crash never leaves a truncated 
+	 * cache file, and remove files cached from older versions of the sound
+	 */
+	private static void write(Path dir, String name, Path file, short [] s) throws IOException {
+		Files.createDirectories(dir);
+		
+		ByteBuffer b = ByteBuffer.allocate(s.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+		b.asShortBuffer().put(s);
+		
+		Path tmp = Files.createTempFile(dir, name, ".tmp");
+		try {
+			FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE);
+			try {
+				while (b.hasRemaining())
+					ch.write(b);
+			} finally {
+				ch.close();
+			}
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, 
+					StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+		
+		final String prefix = name + "-";
+		DirectoryStream<Path> stale = Files.newDirectoryStream(dir, new DirectoryStream.Filter<Path>() {
+			public boolean accept(Path p) {
+				String f = p.getFileName().toString();
+				return f.startsWith(prefix) && f.endsWith(".pcm") 
+					&& f.length() == prefix.length() - 1 + SUFFIX_LENGTH;
+			}
+		});
+		try {
+			for (Path p : stale)
+				if (!p.equals(file))
+					Files.deleteIfExists(p);
+		} finally {
+			stale.close();
+		}
+	}
+	
+	/**
+	 * @param url - the sound's file, or the AssetPack it's packed in
+	 */
+	private static Path directory(URL url) {
+		String dir = System.getProperty(CACHE_PROPERTY);
+		if (dir != null)
+			return Paths.get(dir);
+		
+		if ("file".equals(url.getProtocol())) {
+			try {
+				return Paths.get(url.toURI()).getParent().resolve(".pcm");
+			} catch (URISyntaxException e) {
+				// fall through to the home directory
+			}
+		}
+		return Paths.get(System.getProperty("user.home"), ".frogger", "pcm");
+	}
+	
+	/**
+	 * SHA-1 of the source file and the sample format it's decoded to
+	 */
+	private static String hash(String path) throws IOException {
+		MessageDigest md;
+		try {
+			md = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+		md.update(SoundMixer.FORMAT.toString().getBytes("UTF-8"));
+		
+		InputStream in = AssetLoader.open(path);
+		try {
+			byte [] buf = new byte[8192];
+			int n;
+			while ((n = in.read(buf)) > 0)
+				md.update(buf, 0, n);
+		} finally {
+			in.close();
+		}
+		
+		byte [] d = md.digest();
+		char [] c = new char[d.length * 2];
+		for (int i = 0; i < d.length; i++) {
+			c[2*i]   = HEX[(d[i] >> 4) & 0xf];
+			c[2*i+1] = HEX[d[i] & 0xf];
+		}
+		return new String(c);
+	}
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Replays a recorded game session headless, as fast as the CPU allows
+ * 
+ * Record a session with
+ * $ java -cp build:src:lib/jig-1.7.5.jar frogger.Main -record session.frg
+ * and play it back, optionally several times over, with
+ * $ java -cp build:src:lib/jig-1.7.5.jar frogger.ReplayMain session.frg [repeat]
+ * 
+ * @author vitaliy
+ *
+ */
+public class ReplayMain {
+	
+	/**
+	 * Play the whole recording once in a fresh world
+	 * 
+	 * @param replay
+	 * @return the world after the last recorded tick
+	 */
+	public static FroggerWorld replay(InputReplay replay) {
+		HeadlessMain h = new HeadlessMain(replay.getSeed());
+		if (replay.isEndless())
+			h.getWorld().setEndless(true);
+		h.getWorld().setKeyboard(replay);
+		
+		replay.rewind();
+		while (replay.hasNext())
+			h.tick(replay.nextDeltaMs());
+		
+		return h.getWorld();
+	}
+	
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.out.println("usage: ReplayMain <recording> [repeat]");
+			return;
+		}
+		int repeat = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+		
+		InputReplay replay = new InputReplay(Paths.get(args[0]));
+		
+		for (int i = 0; i < repeat; i++) {
+			long t0 = System.nanoTime();
+			FroggerWorld w = replay(replay);
+			long t1 = System.nanoTime();
+			
+			System.out.println("replayed " + w.getTime() + " ms of play in " 
+					+ ((t1 - t0) / 1e6) + " ms wall time, level " + w.GameLevel 
+					+ ", score " + w.GameScore + ", lives " + w.GameLives);
+		}
+	}
+}
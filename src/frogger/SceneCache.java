@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+import jig.engine.ImageResource;
+import jig.engine.RenderingContext;
+import jig.engine.ResourceFactory;
+import jig.engine.ViewableLayer;
+
+/**
+ * Background layer drawn with a single blit per frame
+ * 
+ * The background tiles are composited once into an image the size of the 
+ * world, which jig turns into an accelerated image. When the scene stops
+ * moving, as on the level finished screen, freeze() composites the background,
+ * the moving entities and Frogger into one more image that is drawn instead
+ * until thaw(). In endless mode compose() rebuilds the background from
+ * rows of grass, road and river whenever the world scrolled.
+ * 
+ * @author vitaliy
+ *
+ */
+public class SceneCache implements ViewableLayer {
+	
+	static final String BACKGROUND   = "frogger#background_composite";
+	static final String FREEZE_FRAME = "frogger#freeze_frame";
+	
+	// Rows of the background tile that compose() copies for each kind of row
+	static final int GRASS_ROW = 7;
+	static final int RIVER_ROW = 5;
+	static final int ROAD_ROW  = 10;
+	
+	private final int width;
+	private final int height;
+	
+	private final ImageResource tile;
+	private ImageResource background;
+	private ImageResource frozen = null;
+	
+	// EndlessLanes version the background shows, -1 for the plain tile
+	private int composed = -1;
+	
+	private final AffineTransform at = new AffineTransform();
+	
+	/**
+	 * @param tile - background image, repeated to cover w x h
+	 * @param w
+	 * @param h
+	 */
+	public SceneCache(ImageResource tile, int w, int h) {
+		width = w;
+		height = h;
+		this.tile = tile;
+		
+		BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = img.createGraphics();
+		for (int x = 0; x < w; x += tile.getWidth()) {
+			for (int y = 0; y < h; y += tile.getHeight()) {
+				at.setToTranslation(x, y);
+				tile.draw(g, at);
+			}
+		}
+		g.dispose();
+		at.setToIdentity();
+		
+		background = register(BACKGROUND, img);
+	}
+	
+	/**
+	 * Rebuild the background from the rows of the endless mode, 
+	 * nothing to do if they didn't change since the last call
+	 * @param lanes
+	 */
+	public void compose(EndlessLanes lanes) {
+		if (lanes.getVersion() == composed)
+			return;
+		composed = lanes.getVersion();
+		
+		BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = img.createGraphics();
+		for (int r = 0; r < lanes.getNumRows(); r++) {
+			int src = GRASS_ROW;
+			if (lanes.isRiver(r))
+				src = RIVER_ROW;
+			else if (lanes.isRoad(r))
+				src = ROAD_ROW;
+			
+			int y = r * LaneIndex.ROW_HEIGHT;
+			g.setClip(0, y, width, LaneIndex.ROW_HEIGHT);
+			for (int x = 0; x < width; x += tile.getWidth()) {
+				at.setToTranslation(x, y - src * LaneIndex.ROW_HEIGHT);
+				tile.draw(g, at);
+			}
+		}
+		g.dispose();
+		at.setToIdentity();
+		
+		ResourceFactory.getFactory().freeResource(BACKGROUND);
+		background = register(BACKGROUND, img);
+	}
+	
+	/**
+	 * Composite the current scene and draw only that until thaw()
+	 * @param world
+	 */
+	public void freeze(FroggerWorld world) {
+		BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = img.createGraphics();
+		background.draw(g, at);
+		
+		// Same order as Main.render
+		if (world.frog.isAlive) {
+			drawEntities(world.movingObjectsLayer, g);
+			world.frog.draw(g, at);
+		} else {
+			world.frog.draw(g, at);
+			drawEntities(world.movingObjectsLayer, g);
+		}
+		g.dispose();
+		at.setToIdentity();
+		
+		ResourceFactory.getFactory().freeResource(FREEZE_FRAME);
+		frozen = register(FREEZE_FRAME, img);
+	}
+	
+	/**
+	 * Go back to drawing the background only
+	 */
+	public void thaw() {
+		if (frozen == null)
+			return;
+		frozen = null;
+		ResourceFactory.getFactory().freeResource(FREEZE_FRAME);
+	}
+	
+	public boolean isFrozen() {
+		return frozen != null;
+	}
+	
+	private void drawEntities(MovingEntityLayer layer, Graphics2D g) {
+		for (int i = 0; i < layer.size(); i++)
+			layer.get(i).draw(g, at);
+	}
+	
+	private static ImageResource register(String name, BufferedImage img) {
+		ResourceFactory.getFactory().putFrames(name, new BufferedImage[] {img});
+		return ResourceFactory.getFactory().getFrames(name).get(0);
+	}
+	
+	public void render(RenderingContext rc) {
+		if (frozen != null)
+			frozen.render(rc, at);
+		else
+			background.render(rc, at);
+	}
+	
+	public void update(long deltaMs) {
+	}
+	
+	public boolean isActive() {
+		return true;
+	}
+	
+	public void setActivation(boolean a) {
+		// the background is always there
+	}
+}
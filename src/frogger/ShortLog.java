@@ -32,14 +32,12 @@ public class ShortLog extends MovingEntity {
 	
 	public ShortLog (Vector2D pos, Vector2D v) {
 		super(Main.SPRITE_SHEET + "#shortlog");
-		position = pos;
-		Vector2D posSphere1 = position;
-		Vector2D posSphere2 = new Vector2D(position.getX()+32, position.getY());
-		Vector2D posSphere3 = new Vector2D(position.getX()+64, position.getY());
-		collisionObjects.add(new CollisionObject("colSmall", posSphere1));
-		collisionObjects.add(new CollisionObject("colSmall", posSphere2));
-		collisionObjects.add(new CollisionObject("colSmall", posSphere3));
-		velocity = v;
+		setShape(3, NARROW);
+		reset(pos, v);
+	}
+	
+	public void reset(Vector2D pos, Vector2D v) {
+		super.reset(pos, v);
 		if (v.getX() < 0)
 			setFrame(1);
 		else
@@ -0,0 +1,302 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.DataLine;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * Software mixer playing every sound effect through one output line
+ * 
+ * jig's AudioClip opens a line per clip and a thread per play-back, so
+ * mashing the jump key while the ambient effects and the wind and heat 
+ * stingers play runs out of lines. Here a fixed number of voices is mixed
+ * into a single line by one thread. When all voices are busy a new sound 
+ * takes the voice of the oldest sound with the same or lower priority, 
+ * or isn't played if every voice is more important.
+ * 
+ * The background music loops on a voice of its own, next to the pool.
+ * 
+ * Sounds are 16 bit stereo samples in FORMAT, see AssetLoader. The 
+ * samples are only read, so one buffer can play on several voices.
+ * 
+ * @author vitaliy
+ *
+ */
+public class SoundMixer {
+	
+	public static final AudioFormat FORMAT = new AudioFormat(44100, 16, 2, true, false);
+	
+	public static final int VOICES = 8;
+	
+	// Frames mixed at once, ~12ms
+	private static final int BLOCK = 512;
+	
+	private static SoundMixer mixer = null;
+	
+	private final Voice [] voices;
+	private final Voice music = new Voice();
+	private boolean musicPaused = false;
+	private final int [] mix = new int[BLOCK * 2];
+	private final byte [] out = new byte[BLOCK * 4];
+	
+	private SourceDataLine line = null;
+	private long started = 0;
+	private int stolen = 0;
+	private int dropped = 0;
+	
+	/**
+	 * @return mixer shared by the whole game, started on first use
+	 */
+	public static synchronized SoundMixer getMixer() {
+		if (mixer == null) {
+			mixer = new SoundMixer(VOICES);
+			mixer.start();
+		}
+		return mixer;
+	}
+	
+	/**
+	 * @param n - number of sounds heard at once
+	 */
+	public SoundMixer(int n) {
+		voices = new Voice[n];
+		for (int i = 0; i < n; i++)
+			voices[i] = new Voice();
+	}
+	
+	/**
+	 * Open the output line and start mixing
+	 * @return false when there's no line to play on, sounds are then ignored
+	 */
+	public boolean start() {
+		try {
+			line = (SourceDataLine) AudioSystem.getLine(
+					new DataLine.Info(SourceDataLine.class, FORMAT));
+			line.open(FORMAT, out.length * 4);
+		} catch (LineUnavailableException e) {
+			System.err.println("Can't open sound output: " + e);
+			line = null;
+			return false;
+		} catch (RuntimeException e) {
+			// e.g. IllegalArgumentException when there's no audio device
+			System.err.println("Can't open sound output: " + e);
+			line = null;
+			return false;
+		}
+		line.start();
+		
+		Thread t = new Thread(new Runnable() {
+			public void run() {
+				while (true) {
+					mixBlock();
+					line.write(out, 0, out.length);
+				}
+			}
+		}, "frogger-mixer");
+		t.setDaemon(true);
+		t.setPriority(Thread.MAX_PRIORITY);
+		t.start();
+		return true;
+	}
+	
+	/**
+	 * Play a sound on a free voice, or on one taken from a less important sound
+	 * 
+	 * @param samples - interleaved stereo samples in FORMAT, never modified
+	 * @param gain - linear, 1.0 plays the samples as they are
+	 * @param priority - higher takes voices from lower
+	 * @param max - most voices this sound plays on at once; beyond that 
+	 * 		its oldest play-back starts over
+	 * @return false if no voice was available
+	 */
+	public synchronized boolean play(ShortBuffer samples, double gain, int priority, int max) {
+		Voice v = null;
+		Voice oldest = null;
+		int playing = 0;
+		
+		// Another play-back of the same sound first, then a free voice
+		for (Voice c : voices) {
+			if (c.samples == samples) {
+				playing++;
+				if (oldest == null || c.started < oldest.started)
+					oldest = c;
+			} else if (c.samples == null && v == null) {
+				v = c;
+			}
+		}
+		
+		if (playing >= max && oldest != null) {
+			v = oldest;
+		} else if (v == null) {
+			for (Voice c : voices) {
+				if (c.priority > priority)
+					continue;
+				if (v == null || c.priority < v.priority 
+						|| (c.priority == v.priority && c.started < v.started))
+					v = c;
+			}
+			if (v == null) {
+				dropped++;
+				return false;
+			}
+			stolen++;
+		}
+		
+		v.samples = samples;
+		v.position = 0;
+		v.gain = (float) Math.min(gain, 2.0);
+		v.priority = priority;
+		v.started = started++;
+		return true;
+	}
+	
+	/**
+	 * Loop the background music from its start
+	 * @param samples - interleaved stereo samples in FORMAT
+	 * @param gain - linear
+	 */
+	public synchronized void loop(ShortBuffer samples, double gain) {
+		if (samples.limit() == 0)
+			return;
+		music.samples = samples;
+		music.position = 0;
+		music.gain = (float) Math.min(gain, 2.0);
+		musicPaused = false;
+	}
+	
+	public synchronized void pauseMusic() {
+		musicPaused = true;
+	}
+	
+	public synchronized void resumeMusic() {
+		musicPaused = false;
+	}
+	
+	/**
+	 * Silence all voices, the music keeps looping
+	 */
+	public synchronized void stopAll() {
+		for (Voice v : voices)
+			v.samples = null;
+	}
+	
+	/**
+	 * Mix the next block of every playing voice into out
+	 */
+	private void mixBlock() {
+		int [] m = mix;
+		Arrays.fill(m, 0);
+		
+		synchronized (this) {
+			for (Voice v : voices) {
+				if (v.samples == null)
+					continue;
+				mixVoice(v, 0);
+				if (v.position >= v.samples.limit())
+					v.samples = null;
+			}
+			
+			if (music.samples != null && !musicPaused) {
+				int n = mixVoice(music, 0);
+				while (n < m.length) {
+					music.position = 0;
+					n = mixVoice(music, n);
+				}
+			}
+		}
+		
+		byte [] b = out;
+		for (int i = 0; i < m.length; i++) {
+			int x = m[i];
+			if (x > Short.MAX_VALUE)
+				x = Short.MAX_VALUE;
+			else if (x < Short.MIN_VALUE)
+				x = Short.MIN_VALUE;
+			b[2*i] = (byte) x;
+			b[2*i+1] = (byte) (x >> 8);
+		}
+	}
+	
+	/**
+	 * Add the voice's next samples to mix, from offset until mix or the 
+	 * voice ends
+	 * @return offset in mix where the voice ended
+	 */
+	private int mixVoice(Voice v, int offset) {
+		ShortBuffer s = v.samples;
+		int [] m = mix;
+		int n = Math.min(m.length - offset, s.limit() - v.position);
+		int p = v.position - offset;
+		float g = v.gain;
+		for (int i = offset; i < offset + n; i++)
+			m[i] += (int) (s.get(p + i) * g);
+		v.position += n;
+		return offset + n;
+	}
+	
+	/**
+	 * @return number of sounds playing right now
+	 */
+	public synchronized int getActiveVoices() {
+		int n = 0;
+		for (Voice v : voices)
+			if (v.samples != null)
+				n++;
+		return n;
+	}
+	
+	/**
+	 * @return sounds that took the voice of another sound
+	 */
+	public synchronized int getStolen() {
+		return stolen;
+	}
+	
+	/**
+	 * @return sounds not played because every voice was more important
+	 */
+	public synchronized int getDropped() {
+		return dropped;
+	}
+	
+	/**
+	 * One play-back slot
+	 */
+	static class Voice {
+		ShortBuffer samples = null;
+		int position;
+		float gain;
+		int priority;
+		long started;
+	}
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2009 Vitaliy Pavlenko
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package frogger;
+
+/**
+ * Entities of one traffic lane, moved together by a single lane clock
+ * 
+ * Everything a lane's factory builds runs at the lane's velocity, so an 
+ * entity's x is where it joined plus velocity times the lane time since. 
+ * update() only advances the clock; entities work out their x, and where
+ * they were before the last tick, when somebody asks, see MovingEntity.
+ * 
+ * Entities come in at the spawn edge and leave at the far one, so the
+ * ring buffer below is always in travel order: the oldest entity at the
+ * head is the first to go out of play. A tick costs the same however
+ * busy the lane is, only turtles and crocodiles tick their animations.
+ * Being in order also lets collision detection binary search a lane for
+ * the few entities near Frogger, see countPast().
+ * 
+ * @author vitaliy
+ *
+ */
+public class TrafficLane {
+	
+	private final double vx;
+	
+	// Lane time, advanced only by update()
+	private long timeMs = 0;
+	
+	// Length of the last update(), as far back as swept collision tests look
+	private long deltaMs = 0;
+	
+	// Entities from the far edge (head) to the spawn edge
+	private MovingEntity [] ring = new MovingEntity[16];
+	private int head = 0;
+	private int count = 0;
+	
+	// Entities in the ring that have animations to tick
+	private int animated = 0;
+	
+	/**
+	 * @param v - velocity of the lane's entities along the x-axis
+	 */
+	public TrafficLane(double v) {
+		vx = v;
+	}
+	
+	public long getTime() {
+		return timeMs;
+	}
+	
+	public long getDeltaMs() {
+		return deltaMs;
+	}
+	
+	public double getVelocity() {
+		return vx;
+	}
+	
+	public int size() {
+		return count;
+	}
+	
+	/**
+	 * @param i - 0 is the entity furthest along
+	 * @return
+	 */
+	public MovingEntity get(int i) {
+		return ring[(head + i) & (ring.length - 1)];
+	}
+	
+	/**
+	 * Binary search for the entities that already went past a point
+	 * 
+	 * @param px - position on the x-axis
+	 * @return number of entities whose x is further along than px, 
+	 * they are get(0) up to that number
+	 */
+	public int countPast(double px) {
+		int lo = 0;
+		int hi = count;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			double mx = get(mid).getX();
+			if (vx > 0 ? mx > px : mx < px)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+	
+	/**
+	 * Append an entity at the spawn edge, it must have left the spawn
+	 * edge after all the others
+	 * 
+	 * @param m
+	 * @return false if m runs at a velocity of its own (cop cars) and
+	 * keeps moving itself
+	 */
+	public boolean add(MovingEntity m) {
+		if (m.getVelocity().getX() != vx)
+			return false;
+		
+		if (count == ring.length)
+			grow();
+		ring[(head + count) & (ring.length - 1)] = m;
+		count++;
+		if (m.isAnimated())
+			animated++;
+		m.join(this);
+		return true;
+	}
+	
+	private void grow() {
+		MovingEntity [] r = new MovingEntity[ring.length * 2];
+		for (int i = 0; i < count; i++)
+			r[i] = get(i);
+		ring = r;
+		head = 0;
+	}
+	
+	/**
+	 * Move the lane and deactivate the entities that went out of play
+	 * 
+	 * @param deltaMs
+	 * @return number of entities deactivated
+	 */
+	public int update(long deltaMs) {
+		int dropped = 0;
+		while (count > 0 && get(0).isOutOfPlay()) {
+			MovingEntity m = get(0);
+			m.setActivation(false);
+			m.leave();
+			if (m.isAnimated())
+				animated--;
+			
+			ring[head] = null;
+			head = (head + 1) & (ring.length - 1);
+			count--;
+			dropped++;
+		}
+		
+		timeMs += deltaMs;
+		this.deltaMs = deltaMs;
+		
+		if (animated > 0)
+			for (int i = 0; i < count; i++)
+				get(i).animate(deltaMs);
+		
+		return dropped;
+	}
+}
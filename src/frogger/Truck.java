@@ -33,13 +33,12 @@ public class Truck extends MovingEntity {
 
 	public Truck (Vector2D pos, Vector2D v) {
 		super(Main.SPRITE_SHEET + "#truck");
-		position = pos;
-		Vector2D posSphere1 = position;
-		Vector2D posSphere2 = new Vector2D(position.getX()+32, position.getY());
-		collisionObjects.add(new CollisionObject(posSphere1));
-		collisionObjects.add(new CollisionObject(posSphere2));
-		velocity = v;
-		
+		setShape(2, WIDE);
+		reset(pos, v);
+	}
+	
+	public void reset(Vector2D pos, Vector2D v) {
+		super.reset(pos, v);
 		if (v.getX() < 0)
 			setFrame(1);
 		else
@@ -63,7 +63,8 @@ public class Turtles extends MovingEntity{
 	 */
 	public Turtles (Vector2D pos, Vector2D v) {
 		super(Main.SPRITE_SHEET + "#turtles");
-		init(pos,v);
+		setShape(3, NARROW);
+		reset(pos,v);
 	}
 	
 	/**
@@ -75,8 +76,19 @@ public class Turtles extends MovingEntity{
 	 */
 	public Turtles (Vector2D pos, Vector2D v, int water) {
 		super(Main.SPRITE_SHEET + "#turtles");
-		init(pos,v);
-		
+		setShape(3, NARROW);
+		reset(pos,v,water);
+	}
+	
+	/**
+	 * Recycle as a submerged or floating object
+	 * 
+	 * @param pos
+	 * @param v
+	 * @param water - 0 submerged; 1 - floating
+	 */
+	public void reset(Vector2D pos, Vector2D v, int water) {
+		reset(pos,v);
 		
 		// set submerged/floating state based on water variable
 		if (water == 0) {
@@ -89,22 +101,20 @@ public class Turtles extends MovingEntity{
 	}
 	
 	/**
-	 * Initializing the Turtles object
-	 * 
-	 * building collision spheres, etc
+	 * Resetting the Turtles object to float with the default timers
 	 * 
 	 * @param pos - position vector
 	 * @param v   - velocity vector
 	 */
-	public void init(Vector2D pos, Vector2D v) {
-		position = pos;
-		Vector2D posSphere1 = position;
-		Vector2D posSphere2 = new Vector2D(position.getX()+32, position.getY());
-		Vector2D posSphere3 = new Vector2D(position.getX()+64, position.getY());
-		collisionObjects.add(new CollisionObject("colSmall", posSphere1));
-		collisionObjects.add(new CollisionObject("colSmall", posSphere2));
-		collisionObjects.add(new CollisionObject("colSmall", posSphere3));
-		velocity = v;
+	public void reset(Vector2D pos, Vector2D v) {
+		super.reset(pos, v);
+		underwaterTime = 0;
+		isUnderwater = false;
+		isAnimating = false;
+		localDeltaMs = 0;
+		startAnimatingMs = 0;
+		timerMs = 0;
+		aFrame = 0;
 		
 		// Turtles floating direction, left/right		
 		if (v.getX() < 0)
@@ -163,8 +173,49 @@ public class Turtles extends MovingEntity{
 		aFrame = 0;
 	}
 	
-	public void update(final long deltaMs) {
-		super.update(deltaMs);
+	/**
+	 * Predict the submerged state from the timers above
+	 * 
+	 * @param ms - milliseconds from now
+	 * @param deltaMs - game update period
+	 * @return whether the turtles will be under water by then
+	 */
+	public boolean isUnderwaterAfter(long ms, long deltaMs) {
+		// from the start of the animation to the flip of isUnderwater
+		long flipMs = animatingPeriod + 2*deltaMs;
+		
+		long nextFlipMs;
+		if (isAnimating)
+			nextFlipMs = (aFrame == 0) ? flipMs : startAnimatingMs - timerMs + deltaMs;
+		else
+			nextFlipMs = underwaterPeriod - underwaterTime + deltaMs + flipMs;
+		
+		if (ms < nextFlipMs)
+			return isUnderwater;
+		
+		long flips = 1 + (ms - nextFlipMs) / (underwaterPeriod + deltaMs);
+		return (flips % 2 == 0) ? isUnderwater : !isUnderwater;
+	}
+	
+	/**
+	 * The submerge cycle is short and full of special cases,
+	 * so its timers are stepped through rather than computed
+	 */
+	public void advance(long ms, long stepMs) {
+		super.advance(ms, stepMs);
+		localDeltaMs = stepMs;
+		for (long n = ms / stepMs; n > 0; n--) {
+			timerMs += localDeltaMs;
+			checkAirTime();
+			animate();
+		}
+	}
+	
+	public boolean isAnimated() {
+		return true;
+	}
+	
+	public void animate(final long deltaMs) {
 		localDeltaMs = deltaMs;
 		timerMs += localDeltaMs;
 	    checkAirTime();
@@ -25,9 +25,6 @@
 
 package frogger;
 
-import java.util.Random;
-
-import jig.engine.util.Vector2D;
 /**
  * Generating the Wind effect in Frogger
  * 
@@ -39,17 +36,20 @@ public class WindGust {
 	final static int PERIOD    = 5000; //milliseconds
 	final static int DURATION  = 3000; //milliseconds
 	
-	Random r;
+	GameRandom r;
 	
 	private long timeMs;
 	private long durationMs;
 	
 	private boolean isWindy;
 	
-	public WindGust() {
+	private AudioEfx audiofx;
+	
+	public WindGust(AudioEfx a, GameRandom rnd) {
+		audiofx = a;
 		timeMs = 0;
 		isWindy = false;
-		r = new Random(System.currentTimeMillis());
+		r = rnd;
 	}
 	
 	/**
@@ -65,12 +65,30 @@ public class WindGust {
 		
 		if (isWindy && durationMs < DURATION) {
 			double vPos = deltaMs*r.nextDouble()*(0.01*level);
-			f.windReposition(new Vector2D(vPos, 0));
+			f.windReposition(vPos);
 		} else {
 			isWindy = false;
 		}
 	}
 	
+	/**
+	 * @return true while the gust pushes Frogger
+	 */
+	public boolean isWindy() {
+		return isWindy && durationMs < DURATION;
+	}
+	
+	/**
+	 * Average push of the gust, perform() moves Frogger by deltaMs times
+	 * a random fraction of 0.01*level
+	 * 
+	 * @param level
+	 * @return pixels per millisecond
+	 */
+	public static double meanSpeed(final int level) {
+		return 0.005*level;
+	}
+	
 	/**
 	 * Initiate Wind effect
 	 * 
@@ -83,7 +101,7 @@ public class WindGust {
 			if (r.nextInt(100) < level*10) {
 				durationMs = 1;
 				isWindy = true;
-				AudioEfx.wind.play(0.2);
+				audiofx.playWind();
 			}
 			
 			timeMs = 0;	
@@ -95,23 +113,25 @@ public class WindGust {
 	 * Wind particle generator
 	 * 
 	 * @param level
-	 * @return - a wind particle object or null
+	 * @param particles - system the wind particle is emitted into
 	 */
-	public MovingEntity genParticles(final int level) {
+	public void genParticles(final int level, ParticleSystem particles) {
 
 		if (!isWindy)
-			return null;
+			return;
 		
 		// Lower game level has less wind strength and should be less visible
 		if (r.nextInt(100) > level*10)
-			return null;
+			return;
 		
 		int yPos = r.nextInt(13*32)+32;         // visible area in y-axis of the game
-		Vector2D pos = new Vector2D(0, yPos);   // start behind left side
 		
 		// Build somewhat random velocity vector for each wind particle, looks cool
-		Vector2D v = new Vector2D(0.2+r.nextDouble(),(r.nextDouble()-0.5)*0.1); 
-		return new Particle(Main.SPRITE_SHEET + "#white_dot", pos,v);
+		double vx = 0.2+r.nextDouble();
+		double vy = (r.nextDouble()-0.5)*0.1;
+		
+		// start behind left side
+		particles.spawn(ParticleSystem.WIND, 0, yPos, vx, vy, 0);
 	}
 	
 	public void update(final long deltaMs) {